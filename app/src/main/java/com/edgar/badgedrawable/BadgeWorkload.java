@@ -0,0 +1,58 @@
+package com.edgar.badgedrawable;
+
+import androidx.annotation.StyleRes;
+
+import com.edgar.widget.badge.BadgeCountStore;
+
+import java.util.Random;
+
+/**
+ * Badge workload of the stress screen, also run on the JVM by its unit test.
+ * Items mix long text badges and dot badges, counts change at random items.
+ * Not thread safe, use a workload from one thread.
+ **/
+final class BadgeWorkload {
+
+    static final int DEFAULT_ITEM_COUNT = 5000;
+    private static final int MAX_COUNT = 5000;
+
+    private final int mItemCount;
+    private final Random mRandom;
+
+    BadgeWorkload(int itemCount, long seed) {
+        mItemCount = itemCount;
+        mRandom = new Random(seed);
+    }
+
+    int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * Every third item has a plain dot, the others show their count.
+     */
+    @StyleRes
+    int getStyle(int position) {
+        return position % 3 == 0 ? R.style.BadgeDot : R.style.BadgeTextLong;
+    }
+
+    int nextPosition() {
+        return mRandom.nextInt(mItemCount);
+    }
+
+    /**
+     * Counts cover one to four digits, so badges keep changing width.
+     */
+    int nextCount() {
+        return mRandom.nextInt(MAX_COUNT);
+    }
+
+    /**
+     * Publish count changes of random items.
+     */
+    void applyUpdates(BadgeCountStore store, int updateCount) {
+        for (int i = 0; i < updateCount; i++) {
+            store.setCount(nextPosition(), nextCount());
+        }
+    }
+}
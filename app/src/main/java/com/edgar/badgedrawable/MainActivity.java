@@ -2,7 +2,9 @@ package com.edgar.badgedrawable;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.ImageView;
 
 import com.edgar.widget.badge.BadgeDrawable;
@@ -25,5 +27,12 @@ public class MainActivity extends AppCompatActivity {
         ImageView dotBadgeView1 = findViewById(R.id.icon_view_dot_badge1);
         BadgeDrawable dotBadgeDrawable1 = BadgeDrawable.create(this,R.style.BadgeDot);
         BadgeUtils.attachBadgeDrawable(dotBadgeDrawable1,dotBadgeView1);
+
+        findViewById(R.id.stress_test_button).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startActivity(new Intent(MainActivity.this, StressTestActivity.class));
+            }
+        });
     }
 }
\ No newline at end of file
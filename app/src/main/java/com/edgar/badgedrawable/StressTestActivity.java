@@ -0,0 +1,207 @@
+package com.edgar.badgedrawable;
+
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.edgar.widget.badge.BadgeCountStore;
+import com.edgar.widget.badge.BadgeDrawable;
+import com.edgar.widget.badge.BadgeDrawablePool;
+
+/**
+ * Grid of thousands of badged items with counts changing from a background thread.
+ * Frame times (API 24+) and allocations are shown on screen and logged every second.
+ **/
+public class StressTestActivity extends AppCompatActivity {
+
+    private static final String TAG = "BadgeStress";
+    private static final int SPAN_COUNT = 5;
+    private static final int UPDATES_PER_TICK = 50;
+    private static final long UPDATE_INTERVAL_MS = 8;
+    private static final long REPORT_INTERVAL_MS = 1000;
+    private static final long JANK_NANOS = 16_666_667L;
+    private static final long SEED = 42;
+
+    private final BadgeWorkload mWorkload = new BadgeWorkload(BadgeWorkload.DEFAULT_ITEM_COUNT, SEED);
+    private final BadgeDrawablePool mPool = new BadgeDrawablePool();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private BadgeCountStore mCountStore;
+    private TextView mStatsView;
+    private HandlerThread mUpdateThread;
+    private Handler mUpdateHandler;
+    private Window.OnFrameMetricsAvailableListener mFrameMetricsListener;
+    private int mFrameCount;
+    private int mJankCount;
+    private int mDroppedFrameReports;
+    private long mStartAllocatedBytes;
+
+    private final Runnable mUpdateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mWorkload.applyUpdates(mCountStore, UPDATES_PER_TICK);
+            mUpdateHandler.postDelayed(this, UPDATE_INTERVAL_MS);
+        }
+    };
+
+    private final Runnable mReportRunnable = new Runnable() {
+        @Override
+        public void run() {
+            report();
+            mMainHandler.postDelayed(this, REPORT_INTERVAL_MS);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress_test);
+        mStatsView = findViewById(R.id.stats_view);
+        mCountStore = new BadgeCountStore(mWorkload.getItemCount());
+        RecyclerView recyclerView = findViewById(R.id.recycler_view);
+        recyclerView.setLayoutManager(new GridLayoutManager(this, SPAN_COUNT));
+        recyclerView.setAdapter(new BadgeAdapter());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            mFrameMetricsListener = new FrameMetricsListener();
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mFrameCount = 0;
+        mJankCount = 0;
+        mDroppedFrameReports = 0;
+        mStartAllocatedBytes = allocatedBytes();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            getWindow().addOnFrameMetricsAvailableListener(mFrameMetricsListener, mMainHandler);
+        }
+        mUpdateThread = new HandlerThread("BadgeStressUpdates");
+        mUpdateThread.start();
+        mUpdateHandler = new Handler(mUpdateThread.getLooper());
+        mUpdateHandler.post(mUpdateRunnable);
+        mMainHandler.postDelayed(mReportRunnable, REPORT_INTERVAL_MS);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        mMainHandler.removeCallbacks(mReportRunnable);
+        mUpdateHandler.removeCallbacks(mUpdateRunnable);
+        mUpdateThread.quitSafely();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            getWindow().removeOnFrameMetricsAvailableListener(mFrameMetricsListener);
+        }
+        report();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mCountStore.unbindAll();
+        mPool.clear();
+    }
+
+    private void report() {
+        String stats = "frames: " + mFrameCount
+                + ", janky: " + mJankCount
+                + ", dropped reports: " + mDroppedFrameReports
+                + "\nallocated: " + (allocatedBytes() - mStartAllocatedBytes) / 1024 + " KB";
+        mStatsView.setText(stats);
+        Log.i(TAG, stats.replace('\n', ' '));
+    }
+
+    /**
+     * Bytes allocated by the runtime since the process started, from the ART counters on API 23.
+     * Older versions fall back to the used heap, which a garbage collection can shrink.
+     */
+    private static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            String bytes = Debug.getRuntimeStat("art.gc.bytes-allocated");
+            if (bytes != null) {
+                try {
+                    return Long.parseLong(bytes);
+                } catch (NumberFormatException ignored) {
+                    // Fall back to the used heap.
+                }
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.N)
+    private final class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener {
+        @Override
+        public void onFrameMetricsAvailable(Window window, FrameMetrics frameMetrics, int dropCountSinceLastInvocation) {
+            mFrameCount++;
+            mDroppedFrameReports += dropCountSinceLastInvocation;
+            if (frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION) > JANK_NANOS) {
+                mJankCount++;
+            }
+        }
+    }
+
+    private final class BadgeAdapter extends RecyclerView.Adapter<BadgeHolder> {
+
+        @NonNull
+        @Override
+        public BadgeHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            View itemView = LayoutInflater.from(parent.getContext())
+                    .inflate(R.layout.item_stress_badge, parent, false);
+            return new BadgeHolder(itemView);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull BadgeHolder holder, int position) {
+            unbind(holder);
+            BadgeDrawable badge = mPool.attach(mWorkload.getStyle(position), holder.mIconView);
+            mCountStore.bind(position, badge);
+            holder.mBoundPosition = position;
+        }
+
+        @Override
+        public void onViewRecycled(@NonNull BadgeHolder holder) {
+            unbind(holder);
+        }
+
+        @Override
+        public int getItemCount() {
+            return mWorkload.getItemCount();
+        }
+
+        private void unbind(@NonNull BadgeHolder holder) {
+            if (holder.mBoundPosition != RecyclerView.NO_POSITION) {
+                mCountStore.unbind(holder.mBoundPosition);
+                holder.mBoundPosition = RecyclerView.NO_POSITION;
+            }
+            mPool.detach(holder.mIconView);
+        }
+    }
+
+    private static final class BadgeHolder extends RecyclerView.ViewHolder {
+        final ImageView mIconView;
+        int mBoundPosition = RecyclerView.NO_POSITION;
+
+        BadgeHolder(@NonNull View itemView) {
+            super(itemView);
+            mIconView = itemView.findViewById(R.id.icon_view);
+        }
+    }
+}
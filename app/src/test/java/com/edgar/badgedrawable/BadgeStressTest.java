@@ -0,0 +1,155 @@
+package com.edgar.badgedrawable;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.edgar.widget.badge.BadgeCountStore;
+import com.edgar.widget.badge.BadgeDrawable;
+import com.edgar.widget.badge.BadgeDrawablePool;
+import com.edgar.widget.badge.BadgeMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the workload of {@link StressTestActivity} on the JVM and checks it against
+ * badge and invalidate budgets counted by {@link BadgeMetrics}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BadgeStressTest {
+
+    private static final int ITEM_COUNT = 2000;
+    private static final int VISIBLE_COUNT = 60;
+    private static final int ANCHOR_SIZE = 90;
+    private static final int UPDATES_PER_FRAME = 50;
+    private static final int FRAME_COUNT = 200;
+    private static final long SEED = 42;
+
+    private Context mContext;
+    private BadgeWorkload mWorkload;
+    private BadgeDrawablePool mPool;
+    private BadgeCountStore mCountStore;
+    private ImageView[] mAnchors;
+    private BadgeDrawable[] mBadges;
+    private int[] mBoundPositions;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mContext.setTheme(R.style.AppTheme);
+        mWorkload = new BadgeWorkload(ITEM_COUNT, SEED);
+        mPool = new BadgeDrawablePool();
+        mCountStore = new BadgeCountStore(ITEM_COUNT);
+        mAnchors = new ImageView[VISIBLE_COUNT];
+        mBadges = new BadgeDrawable[VISIBLE_COUNT];
+        mBoundPositions = new int[VISIBLE_COUNT];
+        for (int i = 0; i < VISIBLE_COUNT; i++) {
+            ImageView anchor = new ImageView(mContext);
+            anchor.measure(View.MeasureSpec.makeMeasureSpec(ANCHOR_SIZE, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(ANCHOR_SIZE, View.MeasureSpec.EXACTLY));
+            anchor.layout(0, 0, ANCHOR_SIZE, ANCHOR_SIZE);
+            mAnchors[i] = anchor;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        BadgeMetrics.setEnabled(false);
+        BadgeMetrics.reset();
+    }
+
+    @Test
+    public void bindAndRecycle() {
+        // Warm up the pool, then scroll through all items once.
+        scroll(0, VISIBLE_COUNT);
+        Set<BadgeDrawable> badges = Collections.newSetFromMap(new IdentityHashMap<BadgeDrawable, Boolean>());
+        for (int first = 0; first < ITEM_COUNT; first += VISIBLE_COUNT) {
+            scroll(first, VISIBLE_COUNT);
+            Collections.addAll(badges, mBadges);
+        }
+        // Anchors keep their style while scrolling, so every rebind reuses a pooled badge.
+        assertEquals(VISIBLE_COUNT, badges.size());
+    }
+
+    @Test
+    public void publishCounts() {
+        scroll(0, VISIBLE_COUNT);
+        BadgeMetrics.setEnabled(true);
+        for (int frame = 0; frame < FRAME_COUNT; frame++) {
+            mWorkload.applyUpdates(mCountStore, UPDATES_PER_FRAME);
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        }
+
+        // Counts are published once per frame, at most one invalidate per bound badge.
+        BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot();
+        assertTrue(snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE) <= FRAME_COUNT * VISIBLE_COUNT);
+        assertEquals(0, snapshot.getCount(BadgeMetrics.EVENT_LAYOUT_CALLBACK));
+        for (int i = 0; i < VISIBLE_COUNT; i++) {
+            assertEquals(mCountStore.getCount(i), mBadges[i].getNumber());
+        }
+    }
+
+    @Test
+    public void setNumberAndDraw() {
+        scroll(0, VISIBLE_COUNT);
+        Canvas canvas = new Canvas(Bitmap.createBitmap(ANCHOR_SIZE, ANCHOR_SIZE, Bitmap.Config.ARGB_8888));
+        final int operations = FRAME_COUNT * VISIBLE_COUNT;
+        BadgeMetrics.setEnabled(true);
+
+        for (int i = 0; i < operations; i++) {
+            mBadges[i % VISIBLE_COUNT].setNumber(mWorkload.nextCount());
+        }
+        BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot();
+        long invalidates = snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE);
+        // One layout and one invalidate per changed number at most.
+        assertTrue(invalidates <= operations);
+        assertTrue(snapshot.getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE) <= operations);
+
+        for (int i = 0; i < operations; i++) {
+            mBadges[i % VISIBLE_COUNT].draw(canvas);
+        }
+        snapshot = BadgeMetrics.snapshot();
+        assertEquals(operations, snapshot.getCount(BadgeMetrics.EVENT_DRAW));
+        // Drawing never invalidates or lays out a badge.
+        assertEquals(invalidates, snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE));
+    }
+
+    /**
+     * Rebind the visible anchors to the items from {@code first}, as the activity's adapter does.
+     */
+    private void scroll(int first, int count) {
+        for (int i = 0; i < count; i++) {
+            int position = first + i;
+            if (position >= ITEM_COUNT) {
+                break;
+            }
+            ImageView anchor = mAnchors[i];
+            if (mBadges[i] != null) {
+                mCountStore.unbind(mBoundPositions[i]);
+                mPool.detach(anchor);
+            }
+            BadgeDrawable badge = mPool.attach(mWorkload.getStyle(position), anchor);
+            mCountStore.bind(position, badge);
+            mBadges[i] = badge;
+            mBoundPositions[i] = position;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.edgar.widget.badge.benchmark;
+
+import com.edgar.widget.badge.layout.TextMeasurer;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+
+/**
+ * Measures text with a real font, the closest JVM stand-in for a text paint.
+ **/
+final class AwtTextMeasurer implements TextMeasurer {
+
+    private final Font mFont;
+    private final FontRenderContext mRenderContext = new FontRenderContext(null, true, true);
+
+    AwtTextMeasurer(float textSize) {
+        mFont = new Font(Font.SANS_SERIF, Font.BOLD, 1).deriveFont(textSize);
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int count) {
+        return (float) mFont.getStringBounds(text, start, start + count, mRenderContext).getWidth();
+    }
+}
@@ -0,0 +1,119 @@
+package com.edgar.widget.badge.benchmark;
+
+import com.edgar.widget.badge.layout.BadgeGeometry;
+import com.edgar.widget.badge.layout.BadgeLabels;
+import com.edgar.widget.badge.layout.BadgeLayoutEngine;
+import com.edgar.widget.badge.layout.TextMeasurer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Layout, label formatting and text measurement of a screen full of badges.
+ * Each invocation processes {@link #badgeCount} badges with realistic unread counts.
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BadgeLayoutBenchmark {
+
+    private static final int MAX_NUMBER = 99;
+    private static final int[] GRAVITIES = {
+            BadgeLayoutEngine.TOP_END,
+            BadgeLayoutEngine.TOP_START,
+            BadgeLayoutEngine.BOTTOM_END,
+            BadgeLayoutEngine.BOTTOM_START,
+    };
+
+    @Param({"50", "500"})
+    public int badgeCount;
+
+    private int[] mNumbers;
+    private BadgeLayoutEngine.Spec[] mSpecs;
+    private char[][] mLabels;
+    private int[] mLabelLengths;
+    private final BadgeGeometry mGeometry = new BadgeGeometry();
+    private final char[] mLabelBuffer = new char[BadgeLabels.MAX_LABEL_LENGTH];
+    private final TextMeasurer mFixedMeasurer = new FixedAdvanceMeasurer(18f);
+    private TextMeasurer mFontMeasurer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mNumbers = new int[badgeCount];
+        mSpecs = new BadgeLayoutEngine.Spec[badgeCount];
+        mLabels = new char[badgeCount][BadgeLabels.MAX_LABEL_LENGTH];
+        mLabelLengths = new int[badgeCount];
+        for (int i = 0; i < badgeCount; i++) {
+            // Most badges show a small count, some overflow the max number.
+            int number = random.nextInt(10) < 8 ? random.nextInt(10) : random.nextInt(1000);
+            mNumbers[i] = number;
+            mLabelLengths[i] = BadgeLabels.formatNumber(number, MAX_NUMBER, mLabels[i]);
+
+            BadgeLayoutEngine.Spec spec = new BadgeLayoutEngine.Spec();
+            spec.gravity = GRAVITIES[i % GRAVITIES.length];
+            spec.badgeSize = 48;
+            spec.badgeHeight = i % 2 == 0 ? 48 : 0;
+            spec.horizontalPadding = 30;
+            spec.horizontalOffset = 6;
+            spec.verticalOffset = -6;
+            spec.badgeRadii = 24f;
+            spec.sizeAdjustRadius = i % 3 == 0;
+            mSpecs[i] = spec;
+        }
+        mFontMeasurer = new AwtTextMeasurer(30f);
+    }
+
+    @Benchmark
+    public void layout(Blackhole blackhole) {
+        final BadgeGeometry geometry = mGeometry;
+        for (int i = 0; i < badgeCount; i++) {
+            BadgeLayoutEngine.layout(mSpecs[i], 0, 0, 144, 144,
+                    mLabels[i], mLabelLengths[i], mFixedMeasurer, geometry);
+            blackhole.consume(geometry.right);
+        }
+    }
+
+    @Benchmark
+    public void formatLabels(Blackhole blackhole) {
+        final char[] buffer = mLabelBuffer;
+        for (int i = 0; i < badgeCount; i++) {
+            blackhole.consume(BadgeLabels.formatNumber(mNumbers[i], MAX_NUMBER, buffer));
+        }
+    }
+
+    @Benchmark
+    public void measureLabels(Blackhole blackhole) {
+        for (int i = 0; i < badgeCount; i++) {
+            blackhole.consume(mFontMeasurer.measureText(mLabels[i], 0, mLabelLengths[i]));
+        }
+    }
+
+    @Benchmark
+    public void formatMeasureAndLayout(Blackhole blackhole) {
+        final BadgeGeometry geometry = mGeometry;
+        final char[] buffer = mLabelBuffer;
+        for (int i = 0; i < badgeCount; i++) {
+            int length = BadgeLabels.formatNumber(mNumbers[i], MAX_NUMBER, buffer);
+            BadgeLayoutEngine.layout(mSpecs[i], 0, 0, 144, 144,
+                    buffer, length, mFontMeasurer, geometry);
+            blackhole.consume(geometry.right);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.edgar.widget.badge.benchmark;
+
+import com.edgar.widget.badge.layout.TextMeasurer;
+
+/**
+ * Measures text with a fixed advance per char, isolates layout cost from text shaping.
+ **/
+final class FixedAdvanceMeasurer implements TextMeasurer {
+
+    private final float mAdvance;
+
+    FixedAdvanceMeasurer(float advance) {
+        mAdvance = advance;
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int count) {
+        return count * mAdvance;
+    }
+}
@@ -0,0 +1,21 @@
+package com.edgar.widget.badge.layout;
+
+/**
+ * Result of {@link BadgeLayoutEngine#layout}, reused between layouts.
+ **/
+public final class BadgeGeometry {
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+    public float cornerRadius;
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+}
@@ -0,0 +1,70 @@
+package com.edgar.widget.badge.layout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Formats badge numbers into reused char buffers.
+ **/
+public final class BadgeLabels {
+
+    public static final char EXCEED_MAX_NUMBER_SUFFIX = '+';
+    /**
+     * Enough room for {@link Integer#MAX_VALUE} plus the exceed suffix.
+     */
+    public static final int MAX_LABEL_LENGTH = 11;
+
+    private BadgeLabels() {
+    }
+
+    /**
+     * Write the label of a badge number, "99+" when the number exceeds the max number.
+     * @param number non negative badge number
+     * @param maxNumber non negative max number
+     * @param out buffer of at least {@link #MAX_LABEL_LENGTH} chars
+     * @return number of chars written
+     */
+    public static int formatNumber(int number, int maxNumber, @NonNull char[] out) {
+        return formatNumber(number, maxNumber, /* compactFormatter= */ null, out);
+    }
+
+    /**
+     * Write the label of a badge number, optionally in compact form such as "1.2k" or "15k+".
+     * Compact labels ignore a max number below {@link CompactNumberFormatter#MIN_COMPACT_NUMBER},
+     * such as the default 99, which would cap every label before it gets a unit.
+     * @param compactFormatter formats the number in compact form, null for plain digits
+     * @return number of chars written
+     */
+    public static int formatNumber(int number, int maxNumber,
+                                   @Nullable CompactNumberFormatter compactFormatter, @NonNull char[] out) {
+        if (compactFormatter != null && maxNumber < CompactNumberFormatter.MIN_COMPACT_NUMBER) {
+            maxNumber = Integer.MAX_VALUE;
+        }
+        boolean exceeded = number > maxNumber;
+        int value = exceeded ? maxNumber : number;
+        int length = compactFormatter != null
+                ? compactFormatter.format(value, out, 0)
+                : writeNumber(value, out, 0);
+        if (exceeded) {
+            out[length++] = EXCEED_MAX_NUMBER_SUFFIX;
+        }
+        return length;
+    }
+
+    /**
+     * Write the decimal digits of a non negative number.
+     * @return end offset of the digits
+     */
+    public static int writeNumber(int number, @NonNull char[] out, int offset) {
+        int length = 1;
+        for (int n = number / 10; n > 0; n /= 10) {
+            length++;
+        }
+        int end = offset + length;
+        for (int i = end - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,112 @@
+package com.edgar.widget.badge.layout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Badge geometry, independent of the Android view system.
+ * Places a badge relative to its anchor rectangle by gravity and offsets, widens badges
+ * with long labels and resolves the corner radius.
+ **/
+public final class BadgeLayoutEngine {
+
+    /**
+     * Same values as {@code Gravity.TOP | Gravity.END} and friends.
+     */
+    public static final int TOP_END = 0x800035;
+    public static final int TOP_START = 0x800033;
+    public static final int BOTTOM_END = 0x800055;
+    public static final int BOTTOM_START = 0x800053;
+
+    /**
+     * Labels longer than this make the badge grow with the text instead of staying circular.
+     * Any label of two chars or more widens the badge, also a capped one like "5+" for a
+     * number below 10, which would not fit a circle.
+     */
+    public static final int MAX_CIRCULAR_LABEL_LENGTH = 1;
+
+    private BadgeLayoutEngine() {
+    }
+
+    /**
+     * Badge style values the layout depends on.
+     */
+    public static final class Spec {
+        public int gravity = TOP_END;
+        /**
+         * Fixed width, used when positive.
+         */
+        public int badgeWidth;
+        /**
+         * Fixed height, used when positive.
+         */
+        public int badgeHeight;
+        /**
+         * Width and height when no fixed size is set.
+         */
+        public int badgeSize;
+        public int horizontalPadding;
+        public int horizontalOffset;
+        public int verticalOffset;
+        public float badgeRadii;
+        public boolean sizeAdjustRadius;
+    }
+
+    /**
+     * Lay out a badge.
+     * @param label label chars, only measured for long labels without a fixed width
+     * @param labelLength label length, 0 when the badge shows no label
+     * @param measurer measures long labels, may be null when labelLength is 0
+     * @param out receives the badge rectangle and corner radius
+     */
+    public static void layout(@NonNull Spec spec,
+                              int anchorLeft, int anchorTop, int anchorRight, int anchorBottom,
+                              @Nullable char[] label, int labelLength, @Nullable TextMeasurer measurer,
+                              @NonNull BadgeGeometry out) {
+        int width = spec.badgeWidth > 0 ? spec.badgeWidth : spec.badgeSize;
+        int height = spec.badgeHeight > 0 ? spec.badgeHeight : spec.badgeSize;
+        if (spec.badgeWidth <= 0 && labelLength > MAX_CIRCULAR_LABEL_LENGTH
+                && label != null && measurer != null) {
+            width = (int) (measurer.measureText(label, 0, labelLength) + spec.horizontalPadding);
+        }
+
+        int left;
+        int top;
+        switch (spec.gravity) {
+            case TOP_START:
+            case BOTTOM_START:
+                left = anchorLeft + spec.horizontalOffset;
+                break;
+            case TOP_END:
+            case BOTTOM_END:
+            default:
+                left = anchorRight - width + spec.horizontalOffset;
+                break;
+        }
+        switch (spec.gravity) {
+            case BOTTOM_START:
+            case BOTTOM_END:
+                top = anchorBottom - height + spec.verticalOffset;
+                break;
+            case TOP_START:
+            case TOP_END:
+            default:
+                top = anchorTop + spec.verticalOffset;
+                break;
+        }
+        out.left = left;
+        out.top = top;
+        out.right = left + width;
+        out.bottom = top + height;
+        out.cornerRadius = resolveCornerRadius(width, height, spec.badgeRadii, spec.sizeAdjustRadius);
+    }
+
+    /**
+     * Corner radius of a rectangle badge, never more than half of the shortest side.
+     * @param sizeAdjustRadius use half of the shortest side
+     */
+    public static float resolveCornerRadius(float width, float height, float radii, boolean sizeAdjustRadius) {
+        float maxRadius = Math.min(width, height) / 2f;
+        return sizeAdjustRadius ? maxRadius : Math.max(0f, Math.min(radii, maxRadius));
+    }
+}
@@ -0,0 +1,118 @@
+package com.edgar.widget.badge.layout;
+
+import androidx.annotation.NonNull;
+
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Formats large numbers in a short form: 999, 1.2k, 15k, 3M, 2.1B.
+ * Values are truncated, so a label never claims more than the real count.
+ * The decimal separator follows the locale.
+ * <p>
+ * Each label is built once and kept in a table, formatting afterwards is a table lookup
+ * and a copy into the caller's buffer.
+ **/
+public final class CompactNumberFormatter {
+
+    /**
+     * Longest label, such as "999k".
+     */
+    public static final int MAX_LABEL_LENGTH = 4;
+    /**
+     * Smallest number written with a unit, "1k".
+     */
+    public static final int MIN_COMPACT_NUMBER = 1_000;
+
+    private static final HashMap<Locale, CompactNumberFormatter> sInstances = new HashMap<>();
+
+    private static final int THOUSAND = 1_000;
+    private static final int TEN_THOUSAND = 10_000;
+    private static final int MILLION = 1_000_000;
+    private static final int TEN_MILLION = 10_000_000;
+    private static final int BILLION = 1_000_000_000;
+
+    private final char mDecimalSeparator;
+    /**
+     * Labels with one decimal, indexed by the number in tenths of the unit: 10..99.
+     */
+    private final AtomicReferenceArray<char[]> mThousandTenths = new AtomicReferenceArray<>(100);
+    private final AtomicReferenceArray<char[]> mMillionTenths = new AtomicReferenceArray<>(100);
+    private final AtomicReferenceArray<char[]> mBillionTenths = new AtomicReferenceArray<>(100);
+    /**
+     * Labels without decimals, indexed by the number in units: 10..999.
+     */
+    private final AtomicReferenceArray<char[]> mThousands = new AtomicReferenceArray<>(1000);
+    private final AtomicReferenceArray<char[]> mMillions = new AtomicReferenceArray<>(1000);
+
+    private CompactNumberFormatter(char decimalSeparator) {
+        mDecimalSeparator = decimalSeparator;
+    }
+
+    @NonNull
+    public static CompactNumberFormatter getInstance(@NonNull Locale locale) {
+        synchronized (sInstances) {
+            CompactNumberFormatter formatter = sInstances.get(locale);
+            if (formatter == null) {
+                formatter = new CompactNumberFormatter(DecimalFormatSymbols.getInstance(locale).getDecimalSeparator());
+                sInstances.put(locale, formatter);
+            }
+            return formatter;
+        }
+    }
+
+    /**
+     * Write the compact label of a non negative number.
+     * @param out buffer with room for {@link #MAX_LABEL_LENGTH} chars after the offset
+     * @return end offset of the label
+     */
+    public int format(int number, @NonNull char[] out, int offset) {
+        if (number < THOUSAND) {
+            return BadgeLabels.writeNumber(number, out, offset);
+        }
+        char[] label;
+        if (number < TEN_THOUSAND) {
+            label = tenthsLabel(mThousandTenths, number / 100, 'k');
+        } else if (number < MILLION) {
+            label = unitsLabel(mThousands, number / THOUSAND, 'k');
+        } else if (number < TEN_MILLION) {
+            label = tenthsLabel(mMillionTenths, number / 100_000, 'M');
+        } else if (number < BILLION) {
+            label = unitsLabel(mMillions, number / MILLION, 'M');
+        } else {
+            label = tenthsLabel(mBillionTenths, number / 100_000_000, 'B');
+        }
+        System.arraycopy(label, 0, out, offset, label.length);
+        return offset + label.length;
+    }
+
+    @NonNull
+    private char[] tenthsLabel(@NonNull AtomicReferenceArray<char[]> table, int tenths, char suffix) {
+        char[] label = table.get(tenths);
+        if (label == null) {
+            int units = tenths / 10;
+            int decimal = tenths % 10;
+            label = decimal == 0
+                    ? new char[]{(char) ('0' + units), suffix}
+                    : new char[]{(char) ('0' + units), mDecimalSeparator, (char) ('0' + decimal), suffix};
+            table.set(tenths, label);
+        }
+        return label;
+    }
+
+    @NonNull
+    private char[] unitsLabel(@NonNull AtomicReferenceArray<char[]> table, int units, char suffix) {
+        char[] label = table.get(units);
+        if (label == null) {
+            char[] digits = new char[MAX_LABEL_LENGTH];
+            int length = BadgeLabels.writeNumber(units, digits, 0);
+            label = new char[length + 1];
+            System.arraycopy(digits, 0, label, 0, length);
+            label[length] = suffix;
+            table.set(units, label);
+        }
+        return label;
+    }
+}
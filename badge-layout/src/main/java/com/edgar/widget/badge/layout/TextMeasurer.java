@@ -0,0 +1,14 @@
+package com.edgar.widget.badge.layout;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Measures badge labels, implemented on top of a text paint on Android.
+ **/
+public interface TextMeasurer {
+
+    /**
+     * @return advance width of the chars
+     */
+    float measureText(@NonNull char[] text, int start, int count);
+}
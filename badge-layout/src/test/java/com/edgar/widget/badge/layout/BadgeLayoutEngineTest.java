@@ -0,0 +1,128 @@
+package com.edgar.widget.badge.layout;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class BadgeLayoutEngineTest {
+
+    private static final float DELTA = 0.0001f;
+    private static final TextMeasurer MEASURER = new TextMeasurer() {
+        @Override
+        public float measureText(char[] text, int start, int count) {
+            return count * 10f;
+        }
+    };
+
+    @Test
+    public void formatNumber() {
+        char[] out = new char[BadgeLabels.MAX_LABEL_LENGTH];
+        assertEquals("0", new String(out, 0, BadgeLabels.formatNumber(0, 99, out)));
+        assertEquals("42", new String(out, 0, BadgeLabels.formatNumber(42, 99, out)));
+        assertEquals("99", new String(out, 0, BadgeLabels.formatNumber(99, 99, out)));
+        assertEquals("99+", new String(out, 0, BadgeLabels.formatNumber(100, 99, out)));
+        assertEquals("2147483647",
+                new String(out, 0, BadgeLabels.formatNumber(Integer.MAX_VALUE, Integer.MAX_VALUE, out)));
+        assertEquals("2147483646+",
+                new String(out, 0, BadgeLabels.formatNumber(Integer.MAX_VALUE, Integer.MAX_VALUE - 1, out)));
+    }
+
+    @Test
+    public void formatCompactNumber() {
+        CompactNumberFormatter formatter = CompactNumberFormatter.getInstance(Locale.US);
+        char[] out = new char[BadgeLabels.MAX_LABEL_LENGTH];
+        assertEquals("999", compact(formatter, 999, Integer.MAX_VALUE, out));
+        assertEquals("1k", compact(formatter, 1000, Integer.MAX_VALUE, out));
+        assertEquals("1.2k", compact(formatter, 1299, Integer.MAX_VALUE, out));
+        assertEquals("15k", compact(formatter, 15_999, Integer.MAX_VALUE, out));
+        assertEquals("999k", compact(formatter, 999_999, Integer.MAX_VALUE, out));
+        assertEquals("3M", compact(formatter, 3_040_000, Integer.MAX_VALUE, out));
+        assertEquals("120M", compact(formatter, 120_000_000, Integer.MAX_VALUE, out));
+        assertEquals("2.1B", compact(formatter, Integer.MAX_VALUE, Integer.MAX_VALUE, out));
+        assertEquals("9.9k+", compact(formatter, 20_000, 9_999, out));
+        assertEquals("20k", compact(formatter, 20_000, 99, out));
+        assertEquals("42", compact(formatter, 42, 9, out));
+        assertEquals("1,2k", compact(CompactNumberFormatter.getInstance(Locale.GERMANY), 1200, Integer.MAX_VALUE, out));
+    }
+
+    @Test
+    public void layoutTopEnd() {
+        BadgeLayoutEngine.Spec spec = spec(BadgeLayoutEngine.TOP_END);
+        BadgeGeometry out = new BadgeGeometry();
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, label("5"), 1, MEASURER, out);
+        assertGeometry(out, 100 - 16 + 2, -3, 100 + 2, 13);
+    }
+
+    @Test
+    public void layoutBottomStart() {
+        BadgeLayoutEngine.Spec spec = spec(BadgeLayoutEngine.BOTTOM_START);
+        BadgeGeometry out = new BadgeGeometry();
+        BadgeLayoutEngine.layout(spec, 10, 20, 110, 70, label("5"), 1, MEASURER, out);
+        assertGeometry(out, 12, 70 - 16 - 3, 28, 70 - 3);
+    }
+
+    @Test
+    public void longLabelGrowsWithText() {
+        BadgeLayoutEngine.Spec spec = spec(BadgeLayoutEngine.TOP_START);
+        BadgeGeometry out = new BadgeGeometry();
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, label("99+"), 3, MEASURER, out);
+        assertEquals(30 + 8, out.width(), DELTA);
+        assertEquals(16, out.height(), DELTA);
+
+        spec.badgeWidth = 20;
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, label("99+"), 3, MEASURER, out);
+        assertEquals(20, out.width(), DELTA);
+    }
+
+    @Test
+    public void labelLengthDecidesCircularBadge() {
+        BadgeLayoutEngine.Spec spec = spec(BadgeLayoutEngine.TOP_START);
+        BadgeGeometry out = new BadgeGeometry();
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, label("9"), 1, MEASURER, out);
+        assertEquals(16, out.width(), DELTA);
+
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, label("10"), 2, MEASURER, out);
+        assertEquals(20 + 8, out.width(), DELTA);
+
+        // A number below 10 capped by a small max number.
+        char[] capped = new char[BadgeLabels.MAX_LABEL_LENGTH];
+        int length = BadgeLabels.formatNumber(7, 5, capped);
+        BadgeLayoutEngine.layout(spec, 0, 0, 100, 50, capped, length, MEASURER, out);
+        assertEquals(20 + 8, out.width(), DELTA);
+    }
+
+    @Test
+    public void cornerRadius() {
+        assertEquals(4f, BadgeLayoutEngine.resolveCornerRadius(40, 16, 4f, false), DELTA);
+        assertEquals(8f, BadgeLayoutEngine.resolveCornerRadius(40, 16, 20f, false), DELTA);
+        assertEquals(8f, BadgeLayoutEngine.resolveCornerRadius(40, 16, 4f, true), DELTA);
+    }
+
+    private static BadgeLayoutEngine.Spec spec(int gravity) {
+        BadgeLayoutEngine.Spec spec = new BadgeLayoutEngine.Spec();
+        spec.gravity = gravity;
+        spec.badgeSize = 16;
+        spec.horizontalPadding = 8;
+        spec.horizontalOffset = 2;
+        spec.verticalOffset = -3;
+        spec.badgeRadii = 4f;
+        return spec;
+    }
+
+    private static char[] label(String text) {
+        return text.toCharArray();
+    }
+
+    private static void assertGeometry(BadgeGeometry geometry, float left, float top, float right, float bottom) {
+        assertEquals(left, geometry.left, DELTA);
+        assertEquals(top, geometry.top, DELTA);
+        assertEquals(right, geometry.right, DELTA);
+        assertEquals(bottom, geometry.bottom, DELTA);
+    }
+
+    private static String compact(CompactNumberFormatter formatter, int number, int maxNumber, char[] out) {
+        return new String(out, 0, BadgeLabels.formatNumber(number, maxNumber, formatter, out));
+    }
+}
@@ -0,0 +1,115 @@
+package com.edgar.widget.badge;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Number animations run from the shared frame callback and end on the new number.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeAnimatorTest {
+
+    private static final int SIZE = 200;
+    private static final long DURATION_MS = 100;
+    private static final long TIMEOUT_MS = 2000;
+
+    private BadgeDrawable mBadge;
+    private BadgeDrawable mReference;
+    private boolean mAnimating;
+    private boolean mFrameScheduled;
+    private int mInvalidateCount;
+
+    @Test
+    public void animationEndsOnTargetAndRemovesFrameCallback() {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final Context context = instrumentation.getTargetContext();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mBadge = createBadge(context);
+                mBadge.setNumber(3);
+                mBadge.setCallback(new Drawable.Callback() {
+                    @Override
+                    public void invalidateDrawable(@NonNull Drawable who) {
+                        mInvalidateCount++;
+                    }
+
+                    @Override
+                    public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+                    }
+
+                    @Override
+                    public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+                    }
+                });
+                mBadge.setNumberAnimation(BadgeDrawable.ANIMATION_ROLL);
+                mBadge.setNumberAnimationDuration(DURATION_MS);
+                mBadge.setNumber(42);
+                mReference = createBadge(context);
+                mReference.setNumber(42);
+                readAnimationState();
+            }
+        });
+        assertTrue(mAnimating);
+        assertTrue(mFrameScheduled);
+
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        while (mAnimating && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(16);
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    readAnimationState();
+                }
+            });
+        }
+
+        assertFalse(mAnimating);
+        assertFalse(mFrameScheduled);
+        // Every frame invalidated the badge, not just the start and the end.
+        assertTrue(mInvalidateCount > 2);
+        Bitmap animated = draw(mBadge);
+        Bitmap expected = draw(mReference);
+        assertTrue(animated.sameAs(expected));
+        assertEquals(42, mBadge.getNumber());
+    }
+
+    private void readAnimationState() {
+        mAnimating = mBadge.isAnimating();
+        mFrameScheduled = BadgeAnimator.getInstance().isFrameScheduled();
+    }
+
+    @NonNull
+    private static BadgeDrawable createBadge(@NonNull Context context) {
+        View anchor = new View(context);
+        anchor.layout(SIZE / 4, SIZE / 4, SIZE * 3 / 4, SIZE * 3 / 4);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setShapeStyle(BadgeDrawable.STYLE_RECTANGLE);
+        badge.setMaxNumber(99);
+        badge.updateBadgeCoordinates(anchor);
+        return badge;
+    }
+
+    @NonNull
+    private static Bitmap draw(@NonNull BadgeDrawable badge) {
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        badge.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+}
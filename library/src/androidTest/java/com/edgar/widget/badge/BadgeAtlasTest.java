@@ -0,0 +1,133 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure badges drawn from evicted atlas pixels are drawn again.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeAtlasTest {
+
+    private static final int ATLAS_WIDTH = 512;
+    private static final int BADGE_COUNT = 100;
+
+    @Test
+    public void evictedBadgesAreInvalidated() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawable[] badges = new BadgeDrawable[BADGE_COUNT];
+        CountingCallback[] callbacks = new CountingCallback[BADGE_COUNT];
+        for (int i = 0; i < BADGE_COUNT; i++) {
+            BadgeDrawable badge = BadgeDrawable.create(context);
+            badge.setMaxNumber(999);
+            // Every badge shows another label, so each one needs its own atlas cell.
+            badge.setNumber(i + 1);
+            badge.updateBadgeCoordinates(anchor);
+            callbacks[i] = new CountingCallback();
+            badge.setCallback(callbacks[i]);
+            badges[i] = badge;
+        }
+        // Room for a single shelf, far fewer badges than drawn below.
+        int shelfHeight = (int) Math.ceil(badges[BADGE_COUNT - 1].getBadgeBounds().height()) + 1;
+        BadgeAtlas atlas = new BadgeAtlas(ATLAS_WIDTH * 4 * shelfHeight);
+        for (BadgeDrawable badge : badges) {
+            badge.setAtlas(atlas);
+        }
+        for (CountingCallback callback : callbacks) {
+            callback.mInvalidateCount = 0;
+        }
+
+        Canvas canvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+        for (BadgeDrawable badge : badges) {
+            badge.draw(canvas);
+        }
+
+        assertTrue(atlas.getEvictionCount() > 0);
+        assertTrue(atlas.getEntryCount() < BADGE_COUNT);
+        assertEquals(1, callbacks[0].mInvalidateCount);
+        // The last badge was drawn after the last eviction, its pixels are still in the atlas.
+        assertEquals(0, callbacks[BADGE_COUNT - 1].mInvalidateCount);
+    }
+
+    @Test
+    public void clearInvalidatesBadges() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumber(5);
+        badge.updateBadgeCoordinates(anchor);
+        BadgeAtlas atlas = new BadgeAtlas(256 * 1024);
+        badge.setAtlas(atlas);
+        CountingCallback callback = new CountingCallback();
+        badge.setCallback(callback);
+        badge.draw(new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888)));
+
+        atlas.clear();
+
+        assertEquals(1, callback.mInvalidateCount);
+        assertEquals(0, atlas.getEntryCount());
+    }
+
+    @Test
+    public void changedBadgeStopsOwningSharedEntry() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeAtlas atlas = new BadgeAtlas(256 * 1024);
+        BadgeDrawable first = BadgeDrawable.create(context);
+        BadgeDrawable second = BadgeDrawable.create(context);
+        CountingCallback firstCallback = new CountingCallback();
+        CountingCallback secondCallback = new CountingCallback();
+        Canvas canvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+        for (BadgeDrawable badge : new BadgeDrawable[] {first, second}) {
+            badge.setNumber(5);
+            badge.updateBadgeCoordinates(anchor);
+            badge.setAtlas(atlas);
+            badge.draw(canvas);
+        }
+        assertEquals(1, atlas.getEntryCount());
+        assertEquals(1, atlas.getHitCount());
+
+        // Leaves the shared entry, clearing the atlas must only invalidate the other badge.
+        first.setNumber(6);
+        first.setCallback(firstCallback);
+        second.setCallback(secondCallback);
+        atlas.clear();
+
+        assertEquals(0, firstCallback.mInvalidateCount);
+        assertEquals(1, secondCallback.mInvalidateCount);
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.RectF;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Badges attached through {@link BadgeUtils} share one layout listener per anchor,
+ * which is removed with the last badge, and follow the anchor's scroll while tracking.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeAttachmentTest {
+
+    private static final int ANCHOR_SIZE = 200;
+    private static final int FIRST_ID = 1;
+    private static final int SECOND_ID = 2;
+
+    private Context mContext;
+    private View mAnchor;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAnchor = new View(mContext);
+        mAnchor.layout(0, 0, ANCHOR_SIZE, ANCHOR_SIZE);
+        BadgeMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        BadgeMetrics.setEnabled(false);
+        BadgeMetrics.reset();
+    }
+
+    @Test
+    @UiThreadTest
+    public void attachingTwiceRegistersOneListener() {
+        BadgeDrawable badge = createBadge();
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+        BadgeAttachment attachment = BadgeAttachment.get(mAnchor);
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+        assertSame(attachment, BadgeAttachment.get(mAnchor));
+
+        BadgeMetrics.setEnabled(true);
+        mAnchor.layout(0, 0, ANCHOR_SIZE * 2, ANCHOR_SIZE);
+
+        assertEquals(1, BadgeMetrics.snapshot().getCount(BadgeMetrics.EVENT_LAYOUT_CALLBACK));
+        assertEquals(1, BadgeMetrics.snapshot(badge).getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+    }
+
+    @Test
+    @UiThreadTest
+    public void detachingLastBadgeRemovesListenerAndTag() {
+        BadgeDrawable first = createBadge();
+        BadgeDrawable second = createBadge();
+        BadgeUtils.attachBadgeDrawable(first, mAnchor);
+        BadgeUtils.attachBadgeDrawable(second, mAnchor);
+
+        BadgeUtils.detachBadgeDrawable(first, mAnchor);
+        assertNotNull(BadgeAttachment.get(mAnchor));
+        assertNull(first.getCallback());
+
+        BadgeUtils.detachBadgeDrawable(second, mAnchor);
+        assertNull(BadgeAttachment.get(mAnchor));
+        assertNull(second.getCallback());
+
+        BadgeMetrics.setEnabled(true);
+        mAnchor.layout(0, 0, ANCHOR_SIZE * 2, ANCHOR_SIZE);
+        assertEquals(0, BadgeMetrics.snapshot().getCount(BadgeMetrics.EVENT_LAYOUT_CALLBACK));
+    }
+
+    @Test
+    @UiThreadTest
+    public void movedAnchorKeepsBadgeLayout() {
+        BadgeDrawable badge = createBadge();
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+
+        BadgeMetrics.setEnabled(true);
+        // Same size and scroll, badges are placed in anchor coordinates.
+        mAnchor.layout(10, 10, 10 + ANCHOR_SIZE, 10 + ANCHOR_SIZE);
+
+        assertEquals(1, BadgeMetrics.snapshot().getCount(BadgeMetrics.EVENT_LAYOUT_CALLBACK));
+        assertEquals(0, BadgeMetrics.snapshot(badge).getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+    }
+
+    @Test
+    @UiThreadTest
+    public void bulkAttachAndDetach() {
+        FrameLayout root = new FrameLayout(mContext);
+        View first = new View(mContext);
+        first.setId(FIRST_ID);
+        View second = new View(mContext);
+        second.setId(SECOND_ID);
+        root.addView(first);
+        root.addView(second);
+        SparseArray<BadgeDrawable> badges = new SparseArray<>();
+        badges.put(FIRST_ID, createBadge());
+        badges.put(SECOND_ID, createBadge());
+
+        BadgeUtils.attachBadgeDrawables(badges, root);
+        assertNotNull(BadgeAttachment.get(first));
+        assertNotNull(BadgeAttachment.get(second));
+        assertNotNull(badges.get(FIRST_ID).getCallback());
+        assertNotNull(badges.get(SECOND_ID).getCallback());
+
+        BadgeUtils.detachAllBadgeDrawables(root);
+        assertNull(BadgeAttachment.get(first));
+        assertNull(BadgeAttachment.get(second));
+        assertNull(badges.get(FIRST_ID).getCallback());
+        assertNull(badges.get(SECOND_ID).getCallback());
+    }
+
+    @Test
+    @UiThreadTest
+    public void trackingOffsetsBadgeOnAnchorScroll() {
+        BadgeDrawable badge = createBadge();
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+        BadgeUtils.setAnchorTrackingEnabled(mAnchor, true);
+        BadgeAttachment attachment = BadgeAttachment.get(mAnchor);
+        RectF placed = new RectF(badge.getBadgeBounds());
+
+        BadgeMetrics.setEnabled(true);
+        mAnchor.scrollTo(0, 30);
+        // A window calls the listener before the next draw.
+        attachment.onPreDraw();
+
+        assertEquals(0, BadgeMetrics.snapshot(badge).getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+        placed.offset(0f, 30f);
+        assertEquals(placed, badge.getBadgeBounds());
+    }
+
+    @Test
+    @UiThreadTest
+    public void translatedAnchorKeepsBadgeCoordinates() {
+        BadgeDrawable badge = createBadge();
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+        BadgeUtils.setAnchorTrackingEnabled(mAnchor, true);
+        RectF placed = new RectF(badge.getBadgeBounds());
+
+        BadgeMetrics.setEnabled(true);
+        // The anchor overlay moves with the anchor, the badge needs no update.
+        mAnchor.setTranslationX(40f);
+        BadgeAttachment.get(mAnchor).onPreDraw();
+
+        assertEquals(0, BadgeMetrics.snapshot(badge).getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+        assertEquals(0, BadgeMetrics.snapshot(badge).getCount(BadgeMetrics.EVENT_INVALIDATE));
+        assertEquals(placed, badge.getBadgeBounds());
+    }
+
+    @Test
+    @UiThreadTest
+    public void disablingTrackingUnregistersPreDrawListener() {
+        BadgeDrawable badge = createBadge();
+        BadgeUtils.attachBadgeDrawable(badge, mAnchor);
+        BadgeAttachment attachment = BadgeAttachment.get(mAnchor);
+
+        BadgeUtils.setAnchorTrackingEnabled(mAnchor, true);
+        assertTrue(attachment.isPreDrawRegistered());
+        BadgeUtils.setAnchorTrackingEnabled(mAnchor, false);
+        assertFalse(attachment.isPreDrawRegistered());
+
+        BadgeUtils.setAnchorTrackingEnabled(mAnchor, true);
+        BadgeUtils.detachBadgeDrawable(badge, mAnchor);
+        assertFalse(attachment.isPreDrawRegistered());
+    }
+
+    @NonNull
+    private BadgeDrawable createBadge() {
+        BadgeDrawable badge = BadgeDrawable.create(mContext);
+        badge.setNumber(5);
+        return badge;
+    }
+}
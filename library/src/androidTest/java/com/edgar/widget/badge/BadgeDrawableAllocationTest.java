@@ -0,0 +1,74 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure {@link BadgeDrawable#draw(Canvas)} does not allocate, badges are drawn every frame.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeDrawableAllocationTest {
+
+    private static final int DRAW_COUNT = 10_000;
+    /**
+     * The runtime counters are process wide, leave room for other threads allocating meanwhile.
+     * A draw allocating even one small object goes well over it.
+     */
+    private static final long MAX_BYTES_PER_DRAW = 2;
+
+    @Test
+    public void drawDoesNotAllocate() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setShapeStyle(BadgeDrawable.STYLE_RECTANGLE);
+        badge.setMaxNumber(99);
+        badge.setNumber(120);
+        badge.updateBadgeCoordinates(anchor);
+
+        Canvas canvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+        // Warm up, the first draw may lazily initialize caches.
+        badge.draw(canvas);
+
+        long start = allocatedBytes();
+        for (int i = 0; i < DRAW_COUNT; i++) {
+            badge.draw(canvas);
+        }
+        long allocated = allocatedBytes() - start;
+
+        assertTrue("Allocated " + allocated + " bytes in " + DRAW_COUNT + " draws",
+                allocated <= MAX_BYTES_PER_DRAW * DRAW_COUNT);
+    }
+
+    /**
+     * Bytes allocated by the runtime since the process started, from the ART counters on API 23.
+     * Older versions fall back to the used heap, which a garbage collection can shrink.
+     */
+    private static long allocatedBytes() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            String bytes = Debug.getRuntimeStat("art.gc.bytes-allocated");
+            if (bytes != null) {
+                try {
+                    return Long.parseLong(bytes);
+                } catch (NumberFormatException ignored) {
+                    // Fall back to the used heap.
+                }
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
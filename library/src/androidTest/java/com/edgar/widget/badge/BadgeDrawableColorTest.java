@@ -0,0 +1,139 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stateful colors, tint and color filters of badges.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeDrawableColorTest {
+
+    private static final int SIZE = 200;
+    private static final int[] STATE_PRESSED = {android.R.attr.state_pressed};
+    private static final int[] STATE_DEFAULT = {};
+
+    private BadgeDrawable mBadge;
+    private Bitmap mBitmap;
+    private Canvas mCanvas;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        // Leave room around the anchor, the badge sits on its top end corner.
+        anchor.layout(SIZE / 4, SIZE / 4, SIZE * 3 / 4, SIZE * 3 / 4);
+        // Without a number the badge is a plain dot, its center shows the background.
+        mBadge = BadgeDrawable.create(context);
+        mBadge.updateBadgeCoordinates(anchor);
+        mBitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        mCanvas = new Canvas(mBitmap);
+    }
+
+    @Test
+    public void statefulBackgroundFollowsState() {
+        mBadge.setBackgroundColor(pressedList(Color.RED, Color.GREEN));
+        assertTrue(mBadge.isStateful());
+        assertEquals(Color.GREEN, drawCenterPixel());
+
+        mBadge.setState(STATE_PRESSED);
+        assertEquals(Color.RED, drawCenterPixel());
+
+        mBadge.setState(STATE_DEFAULT);
+        assertEquals(Color.GREEN, drawCenterPixel());
+    }
+
+    @Test
+    public void statefulTextColorFollowsState() {
+        mBadge.setTextColor(pressedList(Color.RED, Color.GREEN));
+        assertEquals(Color.GREEN, mBadge.getTextColor());
+
+        mBadge.setState(STATE_PRESSED);
+        assertEquals(Color.RED, mBadge.getTextColor());
+    }
+
+    @Test
+    public void colorFilterIsDrawn() {
+        mBadge.setBackgroundColor(Color.RED);
+        mBadge.setColorFilter(new PorterDuffColorFilter(Color.BLUE, PorterDuff.Mode.SRC_IN));
+        assertEquals(Color.BLUE, drawCenterPixel());
+
+        mBadge.setColorFilter(null);
+        assertEquals(Color.RED, drawCenterPixel());
+    }
+
+    @Test
+    public void tintIsDrawnOnBackgroundOnly() {
+        mBadge.setBackgroundColor(Color.RED);
+        mBadge.setTextColor(Color.WHITE);
+        mBadge.setTint(Color.BLUE);
+        assertEquals(Color.BLUE, drawCenterPixel());
+        assertEquals(Color.WHITE, mBadge.getTextColor());
+
+        mBadge.setTintList(null);
+        assertEquals(Color.RED, drawCenterPixel());
+    }
+
+    @Test
+    public void sameNonStatefulListIsNotAppliedTwice() {
+        ColorStateList colors = ColorStateList.valueOf(Color.RED);
+        mBadge.setBackgroundColor(colors);
+        CountingCallback callback = new CountingCallback();
+        mBadge.setCallback(callback);
+
+        mBadge.setBackgroundColor(colors);
+
+        assertFalse(mBadge.isStateful());
+        assertEquals(0, callback.mInvalidateCount);
+    }
+
+    @NonNull
+    private static ColorStateList pressedList(int pressedColor, int defaultColor) {
+        return new ColorStateList(new int[][]{STATE_PRESSED, STATE_DEFAULT},
+                new int[]{pressedColor, defaultColor});
+    }
+
+    private int drawCenterPixel() {
+        mBitmap.eraseColor(Color.TRANSPARENT);
+        mBadge.draw(mCanvas);
+        RectF bounds = mBadge.getBadgeBounds();
+        return mBitmap.getPixel((int) bounds.centerX(), (int) bounds.centerY());
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure badge changes only invalidate the region covered by the badge.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeDrawableInvalidationTest {
+
+    private static final int ANCHOR_WIDTH = 1080;
+    private static final int ANCHOR_HEIGHT = 168;
+
+    @Test
+    public void numberChangeInvalidatesBadgeRegionOnly() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, ANCHOR_WIDTH, ANCHOR_HEIGHT);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setMaxNumber(99);
+        badge.setNumber(5);
+        badge.updateBadgeCoordinates(anchor);
+
+        RecordingCallback callback = new RecordingCallback();
+        badge.setCallback(callback);
+        Rect oldBadgeRect = new Rect();
+        badge.getBadgeBounds().roundOut(oldBadgeRect);
+
+        badge.setNumber(120);
+        Rect newBadgeRect = new Rect();
+        RectF badgeBounds = badge.getBadgeBounds();
+        badgeBounds.roundOut(newBadgeRect);
+
+        Rect expected = new Rect(oldBadgeRect);
+        expected.union(newBadgeRect);
+        assertEquals(expected, callback.mLastInvalidated);
+        assertEquals(expected, badge.getBounds());
+        assertTrue(callback.mLastInvalidated.width() < ANCHOR_WIDTH / 4);
+    }
+
+    @Test
+    public void colorChangeInvalidatesBadgeRegionOnly() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, ANCHOR_WIDTH, ANCHOR_HEIGHT);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.updateBadgeCoordinates(anchor);
+
+        RecordingCallback callback = new RecordingCallback();
+        badge.setCallback(callback);
+        badge.setBackgroundColor(0xFF00FF00);
+
+        Rect badgeRect = new Rect();
+        badge.getBadgeBounds().roundOut(badgeRect);
+        assertEquals(1, callback.mInvalidateCount);
+        assertTrue(callback.mLastInvalidated.contains(badgeRect));
+        assertTrue(callback.mLastInvalidated.width() < ANCHOR_WIDTH / 4);
+    }
+
+    @Test
+    public void editInvalidatesAndLaysOutOnce() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, ANCHOR_WIDTH, ANCHOR_HEIGHT);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.updateBadgeCoordinates(anchor);
+        RecordingCallback callback = new RecordingCallback();
+        badge.setCallback(callback);
+        BadgeMetrics.setEnabled(true);
+        try {
+            BadgeMetrics.reset(badge);
+            badge.edit()
+                    .maxNumber(99)
+                    .number(42)
+                    .textSize(40f)
+                    .textColor(0xFFFFFFFF)
+                    .backgroundColor(0xFF00FF00)
+                    .shapeStyle(BadgeDrawable.STYLE_RECTANGLE)
+                    .gravity(BadgeDrawable.BOTTOM_START)
+                    .horizontalOffset(4)
+                    .apply();
+
+            BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot(badge);
+            assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+            assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE));
+        } finally {
+            BadgeMetrics.setEnabled(false);
+        }
+        assertEquals(1, callback.mInvalidateCount);
+        Rect badgeRect = new Rect();
+        badge.getBadgeBounds().roundOut(badgeRect);
+        assertTrue(callback.mLastInvalidated.contains(badgeRect));
+    }
+
+    @Test
+    public void nestedEditInvalidatesOnOuterApply() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, ANCHOR_WIDTH, ANCHOR_HEIGHT);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.updateBadgeCoordinates(anchor);
+        RecordingCallback callback = new RecordingCallback();
+        badge.setCallback(callback);
+
+        BadgeDrawable.Editor editor = badge.edit().number(3);
+        badge.edit().backgroundColor(0xFF00FF00).apply();
+        assertEquals(0, callback.mInvalidateCount);
+        editor.apply();
+        assertEquals(1, callback.mInvalidateCount);
+
+        // An edit without changes does nothing.
+        badge.edit().number(3).apply();
+        assertEquals(1, callback.mInvalidateCount);
+    }
+
+    private static class RecordingCallback implements Drawable.Callback {
+        final Rect mLastInvalidated = new Rect();
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mLastInvalidated.set(who.getBounds());
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
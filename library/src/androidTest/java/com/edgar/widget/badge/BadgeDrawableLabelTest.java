@@ -0,0 +1,126 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.edgar.widget.badge.layout.BadgeLabels;
+import com.edgar.widget.badge.layout.CompactNumberFormatter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Labels written for the number formats and texts of a badge created with the default style,
+ * and the badge sizes they lead to.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeDrawableLabelTest {
+
+    private static final int ANCHOR_SIZE = 200;
+    /**
+     * Longer than {@link BadgeLabels#MAX_LABEL_LENGTH}.
+     */
+    private static final String LONG_TEXT = "NOTIFICATIONS";
+
+    @Test
+    public void plainLabelIsCappedByDefaultMaxNumber() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumber(1500);
+
+        assertEquals(BadgeDrawable.DEFAULT_MAX_BADGE_NUMBER + "+", label(badge));
+    }
+
+    @Test
+    public void compactLabelIgnoresDefaultMaxNumber() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumberFormat(BadgeDrawable.NUMBER_FORMAT_COMPACT);
+        badge.setNumber(1500);
+
+        char[] expected = new char[BadgeLabels.MAX_LABEL_LENGTH];
+        int length = CompactNumberFormatter.getInstance(badge.getBadgeState().mLocale).format(1500, expected, 0);
+        assertEquals(new String(expected, 0, length), label(badge));
+    }
+
+    @Test
+    public void compactLabelKeepsLargeMaxNumber() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.edit().numberFormat(BadgeDrawable.NUMBER_FORMAT_COMPACT).maxNumber(9_999).number(20_000).apply();
+
+        char[] expected = new char[BadgeLabels.MAX_LABEL_LENGTH];
+        int length = CompactNumberFormatter.getInstance(badge.getBadgeState().mLocale).format(9_999, expected, 0);
+        assertEquals(new String(expected, 0, length) + "+", label(badge));
+    }
+
+    @Test
+    public void textSizesBadgeToText() {
+        BadgeDrawable badge = createAnchoredBadge();
+        badge.setText("NEW");
+
+        BadgeState state = badge.getBadgeState();
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(state.mTypeface);
+        paint.setTextSize(state.mTextSize);
+        int expectedWidth = (int) (paint.measureText("NEW") + state.mHorizontalPadding);
+        assertEquals("NEW", label(badge));
+        assertEquals(expectedWidth, badge.getBadgeBounds().width(), 0f);
+        assertEquals(state.mBadgeSize, badge.getBadgeBounds().height(), 0f);
+    }
+
+    @Test
+    public void clearingTextShowsNumberAgain() {
+        BadgeDrawable badge = createAnchoredBadge();
+        badge.setNumber(5);
+        badge.setText("NEW");
+        badge.setText(null);
+
+        BadgeDrawable direct = createAnchoredBadge();
+        direct.setNumber(5);
+
+        assertNull(badge.getText());
+        assertEquals("5", label(badge));
+        assertEquals(direct.getBadgeBounds(), badge.getBadgeBounds());
+    }
+
+    @Test
+    public void textLongerThanLabelBuffer() {
+        BadgeDrawable badge = createAnchoredBadge();
+        badge.setText("NEW");
+        float shortWidth = badge.getBadgeBounds().width();
+        badge.setText(LONG_TEXT);
+
+        assertTrue(LONG_TEXT.length() > BadgeLabels.MAX_LABEL_LENGTH);
+        assertEquals(LONG_TEXT, label(badge));
+        assertEquals(LONG_TEXT.length(), badge.getDrawnLabelLength());
+        assertTrue(badge.getBadgeBounds().width() > shortWidth);
+        badge.draw(new Canvas(Bitmap.createBitmap(ANCHOR_SIZE, ANCHOR_SIZE, Bitmap.Config.ARGB_8888)));
+    }
+
+    private static BadgeDrawable createAnchoredBadge() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, ANCHOR_SIZE, ANCHOR_SIZE);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.updateBadgeCoordinates(anchor);
+        return badge;
+    }
+
+    private static String label(BadgeDrawable badge) {
+        BadgeState state = badge.getBadgeState();
+        char[] out = new char[state.getLabelCapacity()];
+        return new String(out, 0, state.writeLabel(out));
+    }
+}
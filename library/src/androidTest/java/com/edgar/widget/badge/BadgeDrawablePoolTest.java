@@ -0,0 +1,121 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Badges leased from a pool must not carry anything over from their previous user.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeDrawablePoolTest {
+
+    @Test
+    @UiThreadTest
+    public void recycledBadgeComesBackClean() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawablePool pool = new BadgeDrawablePool();
+        BadgeDrawable badge = pool.attach(R.style.DefaultBadge, anchor);
+        badge.setTint(Color.BLUE);
+        badge.setColorFilter(new PorterDuffColorFilter(Color.RED, PorterDuff.Mode.SRC_IN));
+        badge.setRecordingEnabled(true);
+        badge.setAtlas(new BadgeAtlas(256 * 1024));
+        badge.setNumberAnimation(BadgeDrawable.ANIMATION_ROLL);
+        badge.setNumber(5);
+        assertTrue(badge.isAnimating());
+        assertTrue(BadgeAnimator.getInstance().isFrameScheduled());
+
+        pool.detach(anchor);
+        BadgeDrawable leased = pool.obtain(context, R.style.DefaultBadge);
+
+        assertSame(badge, leased);
+        assertFalse(leased.isAnimating());
+        assertFalse(BadgeAnimator.getInstance().isFrameScheduled());
+        assertEquals(BadgeDrawable.ANIMATION_NONE, leased.getNumberAnimation());
+        assertNull(leased.getColorFilter());
+        assertNull(leased.getShapeColorFilter());
+        assertFalse(leased.isStateful());
+        assertFalse(leased.isRecordingEnabled());
+        assertNull(leased.getAtlas());
+        assertTrue(leased.getBadgeBounds().isEmpty());
+        assertEquals(0, leased.getNumber());
+    }
+
+    @Test
+    @UiThreadTest
+    public void detachKeepsForeignBadges() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawablePool pool = new BadgeDrawablePool();
+        BadgeDrawable own = BadgeDrawable.create(context, R.style.DefaultBadge);
+        own.setNumber(5);
+        BadgeUtils.attachBadgeDrawable(own, anchor);
+        BadgeDrawable leased = pool.attach(R.style.DefaultBadge, anchor);
+
+        pool.detach(anchor);
+
+        assertNull(own.getCallback());
+        assertEquals(5, own.getNumber());
+        assertSame(leased, pool.obtain(context, R.style.DefaultBadge));
+        assertNotSame(own, pool.obtain(context, R.style.DefaultBadge));
+    }
+
+    @Test
+    @UiThreadTest
+    public void badgeRecycledDuringEditAppliesChanges() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        BadgeDrawablePool pool = new BadgeDrawablePool();
+        BadgeDrawable badge = pool.attach(R.style.DefaultBadge, anchor);
+        // Never applied.
+        badge.edit().number(3);
+
+        pool.detach(anchor);
+        BadgeDrawable leased = pool.obtain(context, R.style.DefaultBadge);
+        CountingCallback callback = new CountingCallback();
+        leased.setCallback(callback);
+        leased.setNumber(4);
+
+        assertSame(badge, leased);
+        assertEquals(1, callback.mInvalidateCount);
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Badges of a group are redrawn when they are removed, and follow their anchors while tracking.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeGroupDrawableTest {
+
+    private static final int HOST_SIZE = 400;
+    private static final int ANCHOR_SIZE = 100;
+
+    @Test
+    public void removingLastBadgeInvalidatesItsArea() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FrameLayout host = new FrameLayout(context);
+        View anchor = new View(context);
+        host.addView(anchor, new FrameLayout.LayoutParams(ANCHOR_SIZE, ANCHOR_SIZE));
+        layout(host);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumber(5);
+        BadgeGroupDrawable group = new BadgeGroupDrawable(host);
+        group.addBadge(anchor, badge);
+        group.attach();
+        Rect badgeBounds = new Rect(badge.getBounds());
+        RecordingCallback callback = new RecordingCallback();
+        group.setCallback(callback);
+
+        group.removeBadge(badge);
+
+        assertEquals(1, callback.mInvalidateCount);
+        assertTrue(callback.mInvalidated.contains(badgeBounds));
+        assertTrue(group.getBounds().isEmpty());
+    }
+
+    @Test
+    public void trackingOffsetsBadgeWhenAnchorMoves() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FrameLayout host = new FrameLayout(context);
+        View anchor = new View(context);
+        host.addView(anchor, new FrameLayout.LayoutParams(ANCHOR_SIZE, ANCHOR_SIZE));
+        layout(host);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumber(5);
+        BadgeGroupDrawable group = new BadgeGroupDrawable(host);
+        group.addBadge(anchor, badge);
+        group.attach();
+        RectF placed = new RectF(badge.getBadgeBounds());
+        RecordingCallback callback = new RecordingCallback();
+        group.setCallback(callback);
+        BadgeMetrics.setEnabled(true);
+        try {
+            BadgeMetrics.reset(badge);
+            anchor.setTranslationX(20f);
+            // Enabling tracking checks the anchors right away, a detached host has no pre draw pass.
+            group.setAnchorTrackingEnabled(true);
+
+            BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot(badge);
+            assertEquals(0, snapshot.getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+            assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE));
+        } finally {
+            BadgeMetrics.setEnabled(false);
+        }
+        // The badge invalidation reaches the host once, through the group.
+        assertEquals(1, callback.mInvalidateCount);
+        placed.offset(20f, 0f);
+        assertEquals(placed, badge.getBadgeBounds());
+    }
+
+    @Test
+    public void trackingLaysOutBadgeWhenAnchorResizes() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FrameLayout host = new FrameLayout(context);
+        View anchor = new View(context);
+        host.addView(anchor, new FrameLayout.LayoutParams(ANCHOR_SIZE, ANCHOR_SIZE));
+        layout(host);
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setNumber(5);
+        BadgeGroupDrawable group = new BadgeGroupDrawable(host);
+        group.addBadge(anchor, badge);
+        group.attach();
+        RectF placed = new RectF(badge.getBadgeBounds());
+        BadgeMetrics.setEnabled(true);
+        try {
+            BadgeMetrics.reset(badge);
+            anchor.layout(0, 0, ANCHOR_SIZE * 2, ANCHOR_SIZE);
+            group.setAnchorTrackingEnabled(true);
+
+            BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot(badge);
+            assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+        } finally {
+            BadgeMetrics.setEnabled(false);
+        }
+        assertEquals(placed.top, badge.getBadgeBounds().top, 0f);
+        assertTrue(badge.getBadgeBounds().left > placed.left);
+    }
+
+    static void layout(@NonNull View host) {
+        host.measure(View.MeasureSpec.makeMeasureSpec(HOST_SIZE, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HOST_SIZE, View.MeasureSpec.EXACTLY));
+        host.layout(0, 0, HOST_SIZE, HOST_SIZE);
+    }
+
+    static class RecordingCallback implements Drawable.Callback {
+        final Rect mInvalidated = new Rect();
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidated.set(who.getBounds());
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Metrics only count while enabled, and count every invalidation the badge callback sees.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeMetricsTest {
+
+    private BadgeDrawable mBadge;
+    private Canvas mCanvas;
+    private CountingCallback mCallback;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        mBadge = BadgeDrawable.create(context);
+        mBadge.setNumber(5);
+        mBadge.updateBadgeCoordinates(anchor);
+        mCanvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+        mCallback = new CountingCallback();
+        mBadge.setCallback(mCallback);
+        BadgeMetrics.reset();
+        BadgeMetrics.reset(mBadge);
+    }
+
+    @After
+    public void tearDown() {
+        BadgeMetrics.setEnabled(false);
+        BadgeMetrics.reset();
+    }
+
+    @Test
+    public void disabledMetricsDoNotCount() {
+        BadgeMetrics.setEnabled(false);
+        mBadge.setNumber(6);
+        mBadge.draw(mCanvas);
+
+        assertNoEvents(BadgeMetrics.snapshot());
+        assertNoEvents(BadgeMetrics.snapshot(mBadge));
+    }
+
+    @Test
+    public void enabledMetricsCountChangesAndDraws() {
+        BadgeMetrics.setEnabled(true);
+        mBadge.setNumber(6);
+        mBadge.draw(mCanvas);
+
+        BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot(mBadge);
+        assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_BOUNDS_UPDATE));
+        assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_INVALIDATE));
+        assertEquals(1, mCallback.mInvalidateCount);
+        assertEquals(1, snapshot.getCount(BadgeMetrics.EVENT_DRAW));
+        assertEquals(1, BadgeMetrics.snapshot().getCount(BadgeMetrics.EVENT_DRAW));
+
+        BadgeMetrics.setEnabled(false);
+        mBadge.setNumber(7);
+        mBadge.draw(mCanvas);
+        assertEquals(1, BadgeMetrics.snapshot(mBadge).getCount(BadgeMetrics.EVENT_DRAW));
+    }
+
+    @Test
+    public void droppedAtlasEntryCountsInvalidate() {
+        BadgeAtlas atlas = new BadgeAtlas(256 * 1024);
+        mBadge.setAtlas(atlas);
+        mBadge.draw(mCanvas);
+        BadgeMetrics.setEnabled(true);
+
+        mCallback.mInvalidateCount = 0;
+
+        atlas.clear();
+
+        assertEquals(1, BadgeMetrics.snapshot(mBadge).getCount(BadgeMetrics.EVENT_INVALIDATE));
+        assertEquals(1, mCallback.mInvalidateCount);
+    }
+
+    @Test
+    public void visibilityChangeCountsInvalidate() {
+        BadgeMetrics.setEnabled(true);
+        mBadge.setVisible(false);
+
+        assertEquals(1, BadgeMetrics.snapshot(mBadge).getCount(BadgeMetrics.EVENT_INVALIDATE));
+        assertEquals(1, mCallback.mInvalidateCount);
+    }
+
+    private static void assertNoEvents(@NonNull BadgeMetrics.Snapshot snapshot) {
+        for (int event = 0; event < BadgeMetrics.EVENT_COUNT; event++) {
+            assertEquals(0, snapshot.getCount(event));
+        }
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
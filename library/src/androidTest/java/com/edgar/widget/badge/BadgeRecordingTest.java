@@ -0,0 +1,101 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Recordings are replayed until the badge changes, every change records again.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeRecordingTest {
+
+    private BadgeDrawable mBadge;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        View anchor = new View(context);
+        anchor.layout(0, 0, 200, 200);
+        mBadge = BadgeDrawable.create(context);
+        mBadge.setNumber(5);
+        mBadge.updateBadgeCoordinates(anchor);
+        mBadge.setRecordingEnabled(true);
+    }
+
+    @Test
+    public void numberChangeDropsRecording() {
+        BadgeRecording recording = record(mBadge);
+        mBadge.setNumber(6);
+        assertFalse(recording.isValid());
+    }
+
+    @Test
+    public void paintChangesDropRecording() {
+        BadgeRecording recording = record(mBadge);
+        mBadge.setAlpha(128);
+        assertFalse(recording.isValid());
+
+        record(mBadge);
+        mBadge.setColorFilter(new PorterDuffColorFilter(Color.BLUE, PorterDuff.Mode.SRC_IN));
+        assertFalse(recording.isValid());
+
+        record(mBadge);
+        mBadge.setBackgroundColor(Color.GREEN);
+        assertFalse(recording.isValid());
+    }
+
+    @Test
+    public void offsetDropsRecording() {
+        BadgeRecording recording = record(mBadge);
+        mBadge.offsetBadge(10, 0);
+        assertFalse(recording.isValid());
+    }
+
+    @Test
+    public void unchangedBadgeKeepsRecording() {
+        BadgeRecording recording = record(mBadge);
+        mBadge.setNumber(5);
+        mBadge.setAlpha(mBadge.getAlpha());
+        assertTrue(recording.isValid());
+    }
+
+    @Test
+    public void disablingReleasesRecording() {
+        BadgeRecording recording = record(mBadge);
+        mBadge.setRecordingEnabled(false);
+        assertFalse(recording.isValid());
+        assertNull(mBadge.getRecording());
+    }
+
+    /**
+     * Record the badge the way a draw does, on any canvas type.
+     */
+    @NonNull
+    private static BadgeRecording record(@NonNull BadgeDrawable badge) {
+        BadgeRecording recording = badge.getRecording();
+        assertNotNull(recording);
+        Rect bounds = new Rect();
+        badge.getBadgeBounds().roundOut(bounds);
+        badge.drawBadge(recording.beginRecording(bounds));
+        recording.endRecording();
+        assertTrue(recording.isValid());
+        return recording;
+    }
+}
@@ -0,0 +1,93 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.ColorDrawable;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Renders badges onto bitmaps without a view.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeRendererTest {
+
+    private static final int ICON_SIZE = 96;
+    private static final int ICON_COLOR = 0xFF2196F3;
+    private static final int BADGE_COLOR = 0xFF00FF00;
+
+    @Test
+    public void renderDrawsIconAndBadge() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        badge.setBackgroundColor(BADGE_COLOR);
+        badge.setBadgeGravity(BadgeDrawable.BOTTOM_START);
+        BadgeRenderer renderer = new BadgeRenderer();
+
+        Bitmap bitmap = renderer.render(new ColorDrawable(ICON_COLOR), ICON_SIZE, ICON_SIZE, badge);
+
+        RectF badgeBounds = badge.getBadgeBounds();
+        assertEquals(BADGE_COLOR, bitmap.getPixel((int) badgeBounds.centerX(), (int) badgeBounds.centerY()));
+        assertEquals(ICON_COLOR, bitmap.getPixel(ICON_SIZE - 1, 0));
+    }
+
+    @Test
+    public void renderKeepsIconBounds() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ColorDrawable icon = new ColorDrawable(ICON_COLOR);
+        icon.setBounds(8, 8, 40, 40);
+
+        new BadgeRenderer().render(icon, ICON_SIZE, ICON_SIZE, BadgeDrawable.create(context));
+
+        assertEquals(new Rect(8, 8, 40, 40), icon.getBounds());
+    }
+
+    @Test
+    public void recycledBitmapIsReused() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeRenderer renderer = new BadgeRenderer();
+        List<ColorDrawable> icons = Arrays.asList(new ColorDrawable(ICON_COLOR), null);
+        List<BadgeDrawable> badges = Arrays.asList(BadgeDrawable.create(context), BadgeDrawable.create(context));
+        List<Bitmap> out = new ArrayList<>();
+
+        renderer.renderAll(icons, badges, ICON_SIZE, ICON_SIZE, out);
+        assertEquals(2, out.size());
+        Bitmap first = out.get(0);
+        renderer.recycle(first);
+
+        Bitmap reused = renderer.render(null, ICON_SIZE, ICON_SIZE, badges.get(1));
+        assertSame(first, reused);
+        // The default badge sits at the top end, the bottom start corner was only covered by the old icon.
+        assertEquals(0, reused.getPixel(0, ICON_SIZE - 1));
+    }
+
+    @Test
+    public void bitmapRecycledTwiceIsPooledOnce() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeRenderer renderer = new BadgeRenderer();
+        BadgeDrawable badge = BadgeDrawable.create(context);
+        Bitmap bitmap = renderer.render(null, ICON_SIZE, ICON_SIZE, badge);
+
+        renderer.recycle(bitmap);
+        renderer.recycle(bitmap);
+
+        Bitmap first = renderer.render(null, ICON_SIZE, ICON_SIZE, badge);
+        Bitmap second = renderer.render(null, ICON_SIZE, ICON_SIZE, badge);
+        assertSame(bitmap, first);
+        assertNotSame(first, second);
+    }
+}
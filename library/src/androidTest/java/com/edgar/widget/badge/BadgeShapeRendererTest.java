@@ -0,0 +1,80 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.GradientDrawable;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BadgeShapeRenderer} draws the same pixels as the {@link GradientDrawable}
+ * BadgeDrawable used to configure on every draw.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeShapeRendererTest {
+
+    private static final int SIZE = 64;
+    private static final int COLOR = 0xFFFF5471;
+    private static final int LEFT = 4;
+    private static final int TOP = 4;
+    private static final int RIGHT = 44;
+    private static final int BOTTOM = 20;
+
+    @Test
+    public void roundRectMatchesGradientDrawable() {
+        assertSamePixels(BadgeDrawable.STYLE_RECTANGLE, GradientDrawable.RECTANGLE, 8f);
+    }
+
+    @Test
+    public void rectMatchesGradientDrawable() {
+        assertSamePixels(BadgeDrawable.STYLE_RECTANGLE, GradientDrawable.RECTANGLE, 0f);
+    }
+
+    @Test
+    public void dotMatchesGradientDrawable() {
+        assertSamePixels(BadgeDrawable.STYLE_DOT, GradientDrawable.OVAL, 0f);
+    }
+
+    @Test
+    public void emptyBoundsDrawNothing() {
+        BadgeShapeRenderer renderer = new BadgeShapeRenderer();
+        renderer.update(new RectF(LEFT, TOP, LEFT, BOTTOM), BadgeDrawable.STYLE_RECTANGLE, 8f);
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        renderer.draw(new Canvas(bitmap), newPaint());
+
+        assertTrue(bitmap.sameAs(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888)));
+    }
+
+    private static void assertSamePixels(@BadgeDrawable.ShapeStyle int shapeStyle, int gradientShape,
+                                         float radius) {
+        Bitmap expected = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        GradientDrawable shapeDrawable = new GradientDrawable();
+        // Same calls BadgeDrawable used to make on every draw.
+        shapeDrawable.setAlpha(255);
+        shapeDrawable.setColor(COLOR);
+        shapeDrawable.setBounds(LEFT, TOP, RIGHT, BOTTOM);
+        shapeDrawable.setShape(gradientShape);
+        shapeDrawable.setCornerRadius(radius);
+        shapeDrawable.draw(new Canvas(expected));
+
+        Bitmap actual = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        BadgeShapeRenderer renderer = new BadgeShapeRenderer();
+        renderer.update(new RectF(LEFT, TOP, RIGHT, BOTTOM), shapeStyle, radius);
+        renderer.draw(new Canvas(actual), newPaint());
+
+        assertTrue(actual.sameAs(expected));
+    }
+
+    private static Paint newPaint() {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(COLOR);
+        return paint;
+    }
+}
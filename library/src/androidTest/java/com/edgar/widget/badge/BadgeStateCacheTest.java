@@ -0,0 +1,145 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.view.ContextThemeWrapper;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Resolved styles and xml resources are shared until the theme or configuration changes,
+ * and badges copy shared state before changing it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeStateCacheTest {
+
+    private static final int TEST_BADGE_XML = com.edgar.widget.badge.test.R.xml.test_badge;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        BadgeDrawable.clearStyleCache();
+    }
+
+    @After
+    public void tearDown() {
+        BadgeDrawable.clearStyleCache();
+    }
+
+    @Test
+    public void badgesOfOneStyleShareState() {
+        BadgeDrawable first = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        BadgeDrawable second = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+
+        assertSame(first.getBadgeState(), second.getBadgeState());
+    }
+
+    @Test
+    public void otherThemeResolvesStyleAgain() {
+        BadgeDrawable first = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        Context themed = new ContextThemeWrapper(mContext, android.R.style.Theme_Material_Light);
+        BadgeDrawable second = BadgeDrawable.create(themed, R.style.DefaultBadge);
+
+        assertNotSame(first.getBadgeState(), second.getBadgeState());
+    }
+
+    @Test
+    public void stateIsOnlyValidForItsConfiguration() {
+        BadgeState state = BadgeDrawable.create(mContext, R.style.DefaultBadge).getBadgeState();
+        Configuration configuration = new Configuration(mContext.getResources().getConfiguration());
+        assertTrue(state.isValidFor(configuration));
+
+        configuration.fontScale *= 2f;
+        assertFalse(state.isValidFor(configuration));
+
+        Context scaled = mContext.createConfigurationContext(configuration);
+        assertNotSame(state, BadgeDrawable.create(scaled, R.style.DefaultBadge).getBadgeState());
+    }
+
+    @Test
+    public void defaultsAreReadForEveryConfiguration() {
+        BadgeDefaults defaults = BadgeDefaults.get(mContext.getResources());
+        assertSame(defaults, BadgeDefaults.get(mContext.getResources()));
+
+        // Same density and font scale, resources may still pick other dimensions.
+        Configuration configuration = new Configuration(mContext.getResources().getConfiguration());
+        configuration.smallestScreenWidthDp += 100;
+        Context wider = mContext.createConfigurationContext(configuration);
+        assertNotSame(defaults, BadgeDefaults.get(wider.getResources()));
+    }
+
+    @Test
+    public void clearStyleCacheResolvesStyleAgain() {
+        BadgeState state = BadgeDrawable.create(mContext, R.style.DefaultBadge).getBadgeState();
+        BadgeDrawable.clearStyleCache();
+
+        assertNotSame(state, BadgeDrawable.create(mContext, R.style.DefaultBadge).getBadgeState());
+    }
+
+    @Test
+    public void xmlResourceIsParsedOnce() {
+        BadgeDrawable first = BadgeDrawable.createFromResource(mContext, TEST_BADGE_XML);
+        BadgeDrawable second = BadgeDrawable.createFromResource(mContext, TEST_BADGE_XML);
+
+        assertSame(first.getBadgeState(), second.getBadgeState());
+        assertEquals(7, first.getNumber());
+
+        Context themed = new ContextThemeWrapper(mContext, android.R.style.Theme_Material_Light);
+        assertNotSame(first.getBadgeState(), BadgeDrawable.createFromResource(themed, TEST_BADGE_XML).getBadgeState());
+    }
+
+    @Test
+    public void xmlResourceIsCachedForEveryTheme() {
+        Context themed = new ContextThemeWrapper(mContext, android.R.style.Theme_Material_Light);
+        BadgeState state = BadgeDrawable.createFromResource(mContext, TEST_BADGE_XML).getBadgeState();
+        BadgeState themedState = BadgeDrawable.createFromResource(themed, TEST_BADGE_XML).getBadgeState();
+
+        // Switching themes back and forth keeps both entries.
+        assertSame(state, BadgeDrawable.createFromResource(mContext, TEST_BADGE_XML).getBadgeState());
+        assertSame(themedState, BadgeDrawable.createFromResource(themed, TEST_BADGE_XML).getBadgeState());
+    }
+
+    @Test
+    public void changesDoNotWriteThroughSharedState() {
+        BadgeDrawable first = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        BadgeDrawable second = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        BadgeState shared = second.getBadgeState();
+
+        first.setNumber(5);
+        first.setBackgroundColor(0xFF00FF00);
+
+        assertNotSame(shared, first.getBadgeState());
+        assertSame(shared, second.getBadgeState());
+        assertEquals(0, second.getNumber());
+        assertEquals(0, BadgeDrawable.create(mContext, R.style.DefaultBadge).getNumber());
+        assertEquals(5, first.getNumber());
+    }
+
+    @Test
+    public void mutateCopiesSharedState() {
+        BadgeDrawable first = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        BadgeState shared = first.getBadgeState();
+
+        assertSame(first, first.mutate());
+        BadgeState copy = first.getBadgeState();
+        assertNotSame(shared, copy);
+        // A mutated badge writes its own copy from now on.
+        first.setNumber(3);
+        assertSame(copy, first.getBadgeState());
+        assertEquals(0, BadgeDrawable.create(mContext, R.style.DefaultBadge).getNumber());
+    }
+}
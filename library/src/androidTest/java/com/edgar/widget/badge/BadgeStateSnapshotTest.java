@@ -0,0 +1,55 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.os.Parcel;
+import android.util.SparseArray;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Saves badges into a parcel and restores them onto new badges.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BadgeStateSnapshotTest {
+
+    private static final int MESSAGE_ID = 2;
+    private static final int NEWS_ID = 7;
+
+    @Test
+    public void restoreAfterParcel() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        SparseArray<BadgeDrawable> badges = new SparseArray<>();
+        BadgeDrawable message = BadgeDrawable.create(context);
+        message.edit().maxNumber(999).number(120).backgroundColor(0xFF00FF00).verticalOffset(4).apply();
+        badges.put(MESSAGE_ID, message);
+        BadgeDrawable news = BadgeDrawable.create(context);
+        news.setText("NEW");
+        badges.put(NEWS_ID, news);
+
+        Parcel parcel = Parcel.obtain();
+        BadgeStateSnapshot.capture(badges).writeToParcel(parcel, 0);
+        parcel.setDataPosition(0);
+        BadgeStateSnapshot snapshot = BadgeStateSnapshot.CREATOR.createFromParcel(parcel);
+        parcel.recycle();
+
+        SparseArray<BadgeDrawable> restored = new SparseArray<>();
+        restored.put(MESSAGE_ID, BadgeDrawable.create(context));
+        restored.put(NEWS_ID, BadgeDrawable.create(context));
+        snapshot.restore(restored);
+
+        BadgeState messageState = restored.get(MESSAGE_ID).getBadgeState();
+        assertEquals(120, messageState.mNumber);
+        assertEquals(999, messageState.mMaxNumber);
+        assertEquals(0xFF00FF00, messageState.mBackgroundColor);
+        assertEquals(4, messageState.mVerticalOffset);
+        assertNull(messageState.mText);
+        assertEquals("NEW", restored.get(NEWS_ID).getText());
+    }
+}
@@ -0,0 +1,161 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Badges prepared on a background thread look like badges set up on the main thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PreparedBadgeTest {
+
+    private static final int TEST_BADGE_XML = com.edgar.widget.badge.test.R.xml.test_badge;
+    private static final int ANCHOR_SIZE = 200;
+
+    private Context mContext;
+    private View mAnchor;
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        mAnchor = new View(mContext);
+        mAnchor.layout(0, 0, ANCHOR_SIZE, ANCHOR_SIZE);
+        mExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdown();
+    }
+
+    @Test
+    @UiThreadTest
+    public void appliedNumberMatchesDirectBadge() throws Exception {
+        PreparedBadge prepared = PreparedBadge.submit(mExecutor, mContext, R.style.DefaultBadge, 42).get();
+        BadgeDrawable badge = createBadge();
+        badge.apply(prepared);
+
+        BadgeDrawable direct = createBadge();
+        direct.setNumber(42);
+
+        assertEquals(42, badge.getNumber());
+        assertSameBadge(direct, badge);
+    }
+
+    @Test
+    @UiThreadTest
+    public void appliedTextMatchesDirectBadge() throws Exception {
+        PreparedBadge prepared = mExecutor.submit(new Callable<PreparedBadge>() {
+            @Override
+            public PreparedBadge call() {
+                return PreparedBadge.prepare(mContext, R.style.DefaultBadge, "NEW");
+            }
+        }).get();
+        BadgeDrawable badge = createBadge();
+        badge.apply(prepared);
+
+        BadgeDrawable direct = createBadge();
+        direct.setText("NEW");
+
+        assertEquals("NEW", String.valueOf(badge.getText()));
+        assertSameBadge(direct, badge);
+    }
+
+    @Test
+    @UiThreadTest
+    public void applyInvalidatesOnce() throws Exception {
+        PreparedBadge prepared = PreparedBadge.submit(mExecutor, mContext, R.style.DefaultBadge, 7).get();
+        BadgeDrawable badge = createBadge();
+        CountingCallback callback = new CountingCallback();
+        badge.setCallback(callback);
+
+        badge.apply(prepared);
+
+        assertEquals(1, callback.mInvalidateCount);
+    }
+
+    @Test
+    @UiThreadTest
+    public void applyReplacesStyle() throws Exception {
+        PreparedBadge prepared = PreparedBadge.submit(mExecutor, mContext, R.style.DefaultBadge, 42).get();
+        BadgeDrawable badge = BadgeDrawable.createFromResource(mContext, TEST_BADGE_XML);
+        badge.updateBadgeCoordinates(mAnchor);
+        badge.apply(prepared);
+
+        BadgeDrawable direct = createBadge();
+        direct.setNumber(42);
+
+        assertSameBadge(direct, badge);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @UiThreadTest
+    public void applyRejectsOtherConfiguration() throws Exception {
+        Configuration configuration = new Configuration(mContext.getResources().getConfiguration());
+        configuration.fontScale *= 2f;
+        Context scaled = mContext.createConfigurationContext(configuration);
+        PreparedBadge prepared = PreparedBadge.submit(mExecutor, scaled, R.style.DefaultBadge, 42).get();
+
+        createBadge().apply(prepared);
+    }
+
+    @NonNull
+    private BadgeDrawable createBadge() {
+        BadgeDrawable badge = BadgeDrawable.create(mContext, R.style.DefaultBadge);
+        badge.updateBadgeCoordinates(mAnchor);
+        return badge;
+    }
+
+    private static void assertSameBadge(@NonNull BadgeDrawable expected, @NonNull BadgeDrawable actual) {
+        assertEquals(expected.getNumber(), actual.getNumber());
+        assertEquals(String.valueOf(expected.getText()), String.valueOf(actual.getText()));
+        assertEquals(expected.getBadgeBounds(), actual.getBadgeBounds());
+        assertTrue(render(expected).sameAs(render(actual)));
+    }
+
+    @NonNull
+    private static Bitmap render(@NonNull BadgeDrawable badge) {
+        Bitmap bitmap = Bitmap.createBitmap(ANCHOR_SIZE, ANCHOR_SIZE, Bitmap.Config.ARGB_8888);
+        badge.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
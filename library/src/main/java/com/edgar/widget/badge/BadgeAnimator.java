@@ -0,0 +1,91 @@
+package com.edgar.widget.badge;
+
+import android.view.Choreographer;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+
+/**
+ * Advances all running badge animations from one frame callback.
+ * The callback is only posted while at least one badge is animating.
+ **/
+@MainThread
+final class BadgeAnimator implements Choreographer.FrameCallback {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static BadgeAnimator sInstance;
+
+    private final Choreographer mChoreographer = Choreographer.getInstance();
+    private final ArrayList<BadgeDrawable> mAnimating = new ArrayList<>(INITIAL_CAPACITY);
+    private boolean mFrameScheduled;
+
+    private BadgeAnimator() {
+    }
+
+    @NonNull
+    static BadgeAnimator getInstance() {
+        if (sInstance == null) {
+            sInstance = new BadgeAnimator();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Start advancing a badge, the badge stops itself by returning false from
+     * {@link BadgeDrawable#onAnimationFrame(long)}.
+     */
+    void start(@NonNull BadgeDrawable badge) {
+        if (!mAnimating.contains(badge)) {
+            mAnimating.add(badge);
+        }
+        if (!mFrameScheduled) {
+            mFrameScheduled = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop advancing a badge right away, the frame callback is removed with the last badge.
+     */
+    void cancel(@NonNull BadgeDrawable badge) {
+        final ArrayList<BadgeDrawable> animating = mAnimating;
+        int index = animating.indexOf(badge);
+        if (index < 0) {
+            return;
+        }
+        int last = animating.size() - 1;
+        animating.set(index, animating.get(last));
+        animating.remove(last);
+        if (animating.isEmpty() && mFrameScheduled) {
+            mFrameScheduled = false;
+            mChoreographer.removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * @return true while the frame callback is posted
+     */
+    boolean isFrameScheduled() {
+        return mFrameScheduled;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mFrameScheduled = false;
+        final ArrayList<BadgeDrawable> animating = mAnimating;
+        for (int i = animating.size() - 1; i >= 0; i--) {
+            if (!animating.get(i).onAnimationFrame(frameTimeNanos)) {
+                // Order does not matter, move the last badge into the free slot.
+                int last = animating.size() - 1;
+                animating.set(i, animating.get(last));
+                animating.remove(last);
+            }
+        }
+        if (!animating.isEmpty()) {
+            mFrameScheduled = true;
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.edgar.widget.badge.layout.BadgeLayoutEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Shared bitmap holding rasterized badges, badges that look the same are drawn once
+ * and then copied from the atlas.
+ * <pre>
+ * BadgeAtlas atlas = new BadgeAtlas(256 * 1024);
+ * badge.setAtlas(atlas);
+ * </pre>
+ * Badges are keyed by everything that changes their pixels: colors, alpha, shape, size,
+ * text size, typeface and label. Space is handed out in shelves, rows of badges with similar
+ * height. When the atlas is full the least recently drawn shelf is cleared, badges drawn from
+ * a cleared shelf are invalidated so no display list keeps showing pixels of another badge.
+ * Atlas badges are drawn at whole pixel positions.
+ **/
+@MainThread
+public final class BadgeAtlas {
+
+    private static final int ATLAS_WIDTH = 512;
+    private static final int BYTES_PER_PIXEL = 4;
+    /**
+     * Gap between badges, keeps filtering from bleeding neighbours into a badge.
+     */
+    private static final int PADDING = 1;
+
+    private final int mMaxBytes;
+    private final int mAtlasHeight;
+    private final HashMap<Key, Entry> mEntries = new HashMap<>();
+    private final ArrayList<Shelf> mShelves = new ArrayList<>();
+    private final Key mProbe = new Key();
+    private final Rect mDstRect = new Rect();
+    private final Paint mBlitPaint = new Paint();
+    @Nullable private Bitmap mBitmap;
+    @Nullable private Canvas mCanvas;
+    private int mShelfBottom;
+    private long mUseClock;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    /**
+     * @param maxBytes memory budget of the atlas bitmap
+     */
+    public BadgeAtlas(int maxBytes) {
+        int height = maxBytes / (ATLAS_WIDTH * BYTES_PER_PIXEL);
+        if (height <= 0) {
+            throw new IllegalArgumentException("Memory budget too small: " + maxBytes);
+        }
+        mMaxBytes = maxBytes;
+        mAtlasHeight = height;
+    }
+
+    public int getMemoryBudget() {
+        return mMaxBytes;
+    }
+
+    /**
+     * @return bytes used by the atlas bitmap, 0 until the first badge was drawn
+     */
+    public int getAllocatedBytes() {
+        return mBitmap == null ? 0 : ATLAS_WIDTH * mAtlasHeight * BYTES_PER_PIXEL;
+    }
+
+    public int getEntryCount() {
+        return mEntries.size();
+    }
+
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return number of badges dropped to make room for others
+     */
+    public long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    public void resetStatistics() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+    /**
+     * Drop all badges and the atlas bitmap. The bitmap is not recycled, display lists recorded
+     * before may still draw it, it is freed once the invalidated badges were redrawn.
+     */
+    public void clear() {
+        dropEntries();
+        mBitmap = null;
+        mCanvas = null;
+    }
+
+    /**
+     * Find or rasterize the atlas entry of a badge.
+     * @return null if the badge does not fit in the atlas
+     */
+    @Nullable
+    Entry obtain(@NonNull BadgeDrawable badge) {
+        final RectF bounds = badge.getBadgeBounds();
+        final int width = (int) Math.ceil(bounds.width());
+        final int height = (int) Math.ceil(bounds.height());
+        if (width <= 0 || height <= 0 || width + PADDING > ATLAS_WIDTH || height + PADDING > mAtlasHeight) {
+            return null;
+        }
+        final Key probe = mProbe;
+        probe.set(badge);
+        Entry entry = mEntries.get(probe);
+        if (entry != null) {
+            mHitCount++;
+            entry.mOwners.add(badge);
+            return entry;
+        }
+        mMissCount++;
+        Shelf shelf = allocate(width + PADDING, height + PADDING);
+        entry = new Entry(new Key(probe), shelf, shelf.mNextX, shelf.mTop, width, height);
+        shelf.mNextX += width + PADDING;
+        shelf.mEntries.add(entry);
+        mEntries.put(entry.mKey, entry);
+        entry.mOwners.add(badge);
+        rasterize(badge, entry);
+        return entry;
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Entry entry, @NonNull RectF bounds) {
+        entry.mShelf.mLastUse = ++mUseClock;
+        int left = Math.round(bounds.left);
+        int top = Math.round(bounds.top);
+        mDstRect.set(left, top, left + entry.mSrcRect.width(), top + entry.mSrcRect.height());
+        canvas.drawBitmap(mBitmap, entry.mSrcRect, mDstRect, mBlitPaint);
+    }
+
+    private void rasterize(@NonNull BadgeDrawable badge, @NonNull Entry entry) {
+        if (mBitmap == null) {
+            mBitmap = Bitmap.createBitmap(ATLAS_WIDTH, mAtlasHeight, Bitmap.Config.ARGB_8888);
+            mCanvas = new Canvas(mBitmap);
+        }
+        final Canvas canvas = mCanvas;
+        final RectF bounds = badge.getBadgeBounds();
+        final Rect cell = entry.mSrcRect;
+        int saveCount = canvas.save();
+        canvas.clipRect(cell);
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        canvas.translate(cell.left - bounds.left, cell.top - bounds.top);
+        badge.drawBadge(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Find a shelf with room for a badge, opening or clearing a shelf if needed.
+     */
+    @NonNull
+    private Shelf allocate(int width, int height) {
+        final ArrayList<Shelf> shelves = mShelves;
+        Shelf best = null;
+        for (int i = 0, size = shelves.size(); i < size; i++) {
+            Shelf shelf = shelves.get(i);
+            // Skip shelves much taller than the badge, they waste a lot of space.
+            if (shelf.fits(width, height) && shelf.mHeight <= height * 3 / 2
+                    && (best == null || shelf.mHeight < best.mHeight)) {
+                best = shelf;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        if (mShelfBottom + height <= mAtlasHeight) {
+            Shelf shelf = new Shelf(mShelfBottom, height);
+            mShelfBottom += height;
+            shelves.add(shelf);
+            return shelf;
+        }
+        Shelf victim = null;
+        for (int i = 0, size = shelves.size(); i < size; i++) {
+            Shelf shelf = shelves.get(i);
+            if (shelf.mHeight >= height && (victim == null || shelf.mLastUse < victim.mLastUse)) {
+                victim = shelf;
+            }
+        }
+        if (victim == null) {
+            // No shelf is tall enough, start over with an empty atlas.
+            mEvictionCount += mEntries.size();
+            dropEntries();
+            return allocate(width, height);
+        }
+        evict(victim);
+        return victim;
+    }
+
+    private void dropEntries() {
+        for (int i = 0, size = mShelves.size(); i < size; i++) {
+            mShelves.get(i).invalidateEntries();
+        }
+        mShelves.clear();
+        mEntries.clear();
+        mShelfBottom = 0;
+    }
+
+    private void evict(@NonNull Shelf shelf) {
+        final ArrayList<Entry> entries = shelf.mEntries;
+        for (int i = 0, size = entries.size(); i < size; i++) {
+            mEntries.remove(entries.get(i).mKey);
+        }
+        mEvictionCount += entries.size();
+        shelf.invalidateEntries();
+        shelf.mNextX = 0;
+    }
+
+    private static final class Shelf {
+        final int mTop;
+        final int mHeight;
+        final ArrayList<Entry> mEntries = new ArrayList<>();
+        int mNextX;
+        long mLastUse;
+
+        Shelf(int top, int height) {
+            mTop = top;
+            mHeight = height;
+        }
+
+        boolean fits(int width, int height) {
+            return height <= mHeight && mNextX + width <= ATLAS_WIDTH;
+        }
+
+        /**
+         * Mark all entries invalid and invalidate the badges drawn from them,
+         * their pixels are about to be overwritten.
+         */
+        void invalidateEntries() {
+            for (int i = 0, size = mEntries.size(); i < size; i++) {
+                mEntries.get(i).invalidate();
+            }
+            mEntries.clear();
+        }
+    }
+
+    /**
+     * Badge pixels in the atlas, a badge keeps its entry until it changes or the entry is evicted.
+     */
+    static final class Entry {
+        final Key mKey;
+        final Shelf mShelf;
+        final Rect mSrcRect;
+        /**
+         * Badges currently drawn from this entry, a badge removes itself when it stops using it.
+         */
+        final Set<BadgeDrawable> mOwners =
+                Collections.newSetFromMap(new IdentityHashMap<BadgeDrawable, Boolean>(2));
+        boolean mValid = true;
+
+        Entry(@NonNull Key key, @NonNull Shelf shelf, int left, int top, int width, int height) {
+            mKey = key;
+            mShelf = shelf;
+            mSrcRect = new Rect(left, top, left + width, top + height);
+        }
+
+        boolean isValid() {
+            return mValid;
+        }
+
+        void removeOwner(@NonNull BadgeDrawable badge) {
+            mOwners.remove(badge);
+        }
+
+        private void invalidate() {
+            mValid = false;
+            final Iterator<BadgeDrawable> owners = mOwners.iterator();
+            while (owners.hasNext()) {
+                BadgeDrawable owner = owners.next();
+                owners.remove();
+                owner.onAtlasEntryInvalidated(this);
+            }
+        }
+    }
+
+    private static final class Key {
+        int mShapeColor;
+        int mTextColor;
+        @Nullable ColorFilter mShapeFilter;
+        @Nullable ColorFilter mTextFilter;
+        int mAlpha;
+        float mTextSize;
+        @Nullable Typeface mTypeface;
+        int mShapeStyle;
+        float mCornerRadius;
+        float mWidth;
+        float mHeight;
+        char[] mLabel;
+        int mLabelLength;
+        int mHash;
+
+        Key() {
+            mLabel = new char[0];
+        }
+
+        Key(@NonNull Key other) {
+            mShapeColor = other.mShapeColor;
+            mTextColor = other.mTextColor;
+            mShapeFilter = other.mShapeFilter;
+            mTextFilter = other.mTextFilter;
+            mAlpha = other.mAlpha;
+            mTextSize = other.mTextSize;
+            mTypeface = other.mTypeface;
+            mShapeStyle = other.mShapeStyle;
+            mCornerRadius = other.mCornerRadius;
+            mWidth = other.mWidth;
+            mHeight = other.mHeight;
+            mLabel = Arrays.copyOf(other.mLabel, other.mLabelLength);
+            mLabelLength = other.mLabelLength;
+            mHash = other.mHash;
+        }
+
+        void set(@NonNull BadgeDrawable badge) {
+            final BadgeState state = badge.getBadgeState();
+            final RectF bounds = badge.getBadgeBounds();
+            mShapeColor = badge.getShapeColor();
+            mTextColor = badge.getTextColor();
+            mShapeFilter = badge.getShapeColorFilter();
+            mTextFilter = badge.getColorFilter();
+            mAlpha = state.mAlpha;
+            mTextSize = state.mTextSize;
+            mTypeface = state.mTypeface;
+            mShapeStyle = state.mShapeStyle;
+            mCornerRadius = BadgeLayoutEngine.resolveCornerRadius(
+                    bounds.width(), bounds.height(), state.mBadgeRadii, state.mSizeAdjustRadius);
+            mWidth = bounds.width();
+            mHeight = bounds.height();
+            final int labelLength = badge.getDrawnLabelLength();
+            if (mLabel.length < labelLength) {
+                mLabel = new char[labelLength];
+            }
+            System.arraycopy(badge.getLabelChars(), 0, mLabel, 0, labelLength);
+            mLabelLength = labelLength;
+
+            int h = mShapeColor;
+            h = 31 * h + mTextColor;
+            h = 31 * h + System.identityHashCode(mShapeFilter);
+            h = 31 * h + System.identityHashCode(mTextFilter);
+            h = 31 * h + mAlpha;
+            h = 31 * h + Float.floatToIntBits(mTextSize);
+            h = 31 * h + System.identityHashCode(mTypeface);
+            h = 31 * h + mShapeStyle;
+            h = 31 * h + Float.floatToIntBits(mCornerRadius);
+            h = 31 * h + Float.floatToIntBits(mWidth);
+            h = 31 * h + Float.floatToIntBits(mHeight);
+            for (int i = 0; i < labelLength; i++) {
+                h = 31 * h + mLabel[i];
+            }
+            mHash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            if (mHash != other.mHash || mShapeColor != other.mShapeColor || mTextColor != other.mTextColor
+                    || mShapeFilter != other.mShapeFilter || mTextFilter != other.mTextFilter
+                    || mAlpha != other.mAlpha || mTextSize != other.mTextSize || mTypeface != other.mTypeface
+                    || mShapeStyle != other.mShapeStyle || mCornerRadius != other.mCornerRadius
+                    || mWidth != other.mWidth || mHeight != other.mHeight || mLabelLength != other.mLabelLength) {
+                return false;
+            }
+            for (int i = 0; i < mLabelLength; i++) {
+                if (mLabel[i] != other.mLabel[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
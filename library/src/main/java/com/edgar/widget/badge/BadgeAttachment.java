@@ -0,0 +1,178 @@
+package com.edgar.widget.badge;
+
+import android.view.View;
+import android.view.ViewOverlay;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Badges attached to one anchor view, stored as a tag of the anchor.
+ * One layout listener serves all badges of the anchor, and badge coordinates are only
+ * updated when the anchor size or scroll position changed.
+ * With tracking enabled the scroll position is also checked before every draw,
+ * a scroll only moves the badges.
+ **/
+final class BadgeAttachment implements View.OnLayoutChangeListener, ViewTreeObserver.OnPreDrawListener {
+
+    private final View mAnchor;
+    private final ArrayList<BadgeDrawable> mBadges = new ArrayList<>(1);
+    private final PreDrawRegistration mPreDrawRegistration;
+    private int mWidth = -1;
+    private int mHeight = -1;
+    private int mScrollX;
+    private int mScrollY;
+    private boolean mTracking;
+
+    private BadgeAttachment(@NonNull View anchor) {
+        mAnchor = anchor;
+        mPreDrawRegistration = new PreDrawRegistration(anchor, this);
+    }
+
+    @Nullable
+    static BadgeAttachment get(@NonNull View anchor) {
+        Object tag = anchor.getTag(R.id.badge_attachment);
+        return tag instanceof BadgeAttachment ? (BadgeAttachment) tag : null;
+    }
+
+    @NonNull
+    static BadgeAttachment obtain(@NonNull View anchor) {
+        BadgeAttachment attachment = get(anchor);
+        if (attachment == null) {
+            attachment = new BadgeAttachment(anchor);
+            anchor.setTag(R.id.badge_attachment, attachment);
+            anchor.addOnLayoutChangeListener(attachment);
+        }
+        return attachment;
+    }
+
+    void add(@NonNull BadgeDrawable badge) {
+        if (mBadges.contains(badge)) {
+            return;
+        }
+        mBadges.add(badge);
+        mAnchor.getOverlay().add(badge);
+        if (mAnchor.getWidth() > 0 || mAnchor.getHeight() > 0) {
+            // Already laid out, there may be no layout pass to position the badge.
+            badge.updateBadgeCoordinates(mAnchor);
+            if (mBadges.size() == 1) {
+                // Later layout passes with the same size and scroll skip the badge.
+                mWidth = mAnchor.getWidth();
+                mHeight = mAnchor.getHeight();
+                mScrollX = mAnchor.getScrollX();
+                mScrollY = mAnchor.getScrollY();
+            }
+        }
+    }
+
+    /**
+     * @return true if the badge was attached to the anchor
+     */
+    boolean remove(@NonNull BadgeDrawable badge) {
+        if (!mBadges.remove(badge)) {
+            return false;
+        }
+        mAnchor.getOverlay().remove(badge);
+        if (mBadges.isEmpty()) {
+            release();
+        }
+        return true;
+    }
+
+    /**
+     * Remove all badges from the anchor.
+     * @param outRemoved receives the removed badges, may be null
+     */
+    void removeAll(@Nullable List<BadgeDrawable> outRemoved) {
+        ViewOverlay overlay = mAnchor.getOverlay();
+        for (int i = mBadges.size() - 1; i >= 0; i--) {
+            BadgeDrawable badge = mBadges.get(i);
+            overlay.remove(badge);
+            if (outRemoved != null) {
+                outRemoved.add(badge);
+            }
+        }
+        mBadges.clear();
+        release();
+    }
+
+    /**
+     * Follow scrolling of the anchor before every draw, layout passes are not needed.
+     * Only the anchor's own scroll is followed. Badges are drawn in the anchor overlay,
+     * which already moves with the anchor's translation and the scroll of its parents.
+     */
+    void setTracking(boolean tracking) {
+        if (mTracking == tracking) {
+            return;
+        }
+        mTracking = tracking;
+        if (tracking) {
+            mPreDrawRegistration.register();
+        } else {
+            mPreDrawRegistration.unregister();
+        }
+    }
+
+    @VisibleForTesting
+    boolean isPreDrawRegistered() {
+        return mPreDrawRegistration.isRegistered();
+    }
+
+    @Override
+    public boolean onPreDraw() {
+        int scrollX = mAnchor.getScrollX();
+        int scrollY = mAnchor.getScrollY();
+        if ((scrollX != mScrollX || scrollY != mScrollY)
+                && mAnchor.getWidth() == mWidth && mAnchor.getHeight() == mHeight) {
+            // Badges are drawn in scrolled anchor coordinates, move them by the scroll delta.
+            int dx = scrollX - mScrollX;
+            int dy = scrollY - mScrollY;
+            mScrollX = scrollX;
+            mScrollY = scrollY;
+            final ArrayList<BadgeDrawable> badges = mBadges;
+            for (int i = 0, size = badges.size(); i < size; i++) {
+                badges.get(i).offsetBadge(dx, dy);
+            }
+        }
+        return true;
+    }
+
+    private void release() {
+        if (mTracking) {
+            mTracking = false;
+            mPreDrawRegistration.unregister();
+        }
+        mAnchor.removeOnLayoutChangeListener(this);
+        mAnchor.setTag(R.id.badge_attachment, null);
+    }
+
+    @Override
+    public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                               int oldLeft, int oldTop, int oldRight, int oldBottom) {
+        final long start = BadgeMetrics.start();
+        updateBadges(v, right - left, bottom - top);
+        BadgeMetrics.record(/* badge= */ null, BadgeMetrics.EVENT_LAYOUT_CALLBACK, start);
+    }
+
+    private void updateBadges(@NonNull View v, int width, int height) {
+        int scrollX = v.getScrollX();
+        int scrollY = v.getScrollY();
+        if (width == mWidth && height == mHeight && scrollX == mScrollX && scrollY == mScrollY) {
+            // Badges are placed in anchor coordinates, moving the anchor does not move them.
+            return;
+        }
+        mWidth = width;
+        mHeight = height;
+        mScrollX = scrollX;
+        mScrollY = scrollY;
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            badges.get(i).updateBadgeCoordinates(mAnchor);
+        }
+    }
+}
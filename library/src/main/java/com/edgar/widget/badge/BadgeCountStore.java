@@ -0,0 +1,189 @@
+package com.edgar.widget.badge;
+
+import android.util.SparseArray;
+import android.view.Choreographer;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Badge counts keyed by badge id, updated from any thread without locks.
+ * Updates only overwrite a slot, so a burst of updates for one badge leaves just the latest
+ * count. Once per frame the changed counts are published to the bound {@link BadgeDrawable}s
+ * on the main thread.
+ * <pre>
+ * store.bind(R.id.message_badge, badge);
+ * // on any thread
+ * store.setCount(R.id.message_badge, unread);
+ * </pre>
+ **/
+public class BadgeCountStore {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int EMPTY_KEY = Integer.MIN_VALUE;
+
+    private final int mMask;
+    private final AtomicIntegerArray mKeys;
+    private final AtomicIntegerArray mCounts;
+    private final AtomicIntegerArray mDirty;
+    private final AtomicBoolean mFrameScheduled = new AtomicBoolean();
+    private final Choreographer mChoreographer;
+    private final SparseArray<BadgeDrawable> mBadges = new SparseArray<>();
+    private final Choreographer.FrameCallback mPublishCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            publish();
+        }
+    };
+
+    @MainThread
+    public BadgeCountStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max number of badge ids, rounded up to a power of two.
+     *                 Every frame with updates scans all slots, so keep it close to the real count.
+     */
+    @MainThread
+    public BadgeCountStore(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mKeys = new AtomicIntegerArray(size);
+        mCounts = new AtomicIntegerArray(size);
+        mDirty = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            mKeys.set(i, EMPTY_KEY);
+        }
+        mChoreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * Set the count of a badge, the bound badge shows it on the next frame.
+     */
+    @AnyThread
+    public void setCount(int badgeId, int count) {
+        int slot = obtainSlot(badgeId);
+        mCounts.set(slot, count);
+        markDirty(slot);
+    }
+
+    /**
+     * Add to the count of a badge, the bound badge shows the sum on the next frame.
+     */
+    @AnyThread
+    public void addCount(int badgeId, int delta) {
+        int slot = obtainSlot(badgeId);
+        mCounts.addAndGet(slot, delta);
+        markDirty(slot);
+    }
+
+    /**
+     * @return latest count of a badge, 0 if it was never set.
+     */
+    @AnyThread
+    public int getCount(int badgeId) {
+        int slot = findSlot(badgeId);
+        return slot < 0 ? 0 : mCounts.get(slot);
+    }
+
+    /**
+     * Publish counts of a badge id to the badge, the current count is applied right away.
+     */
+    @MainThread
+    public void bind(int badgeId, @NonNull BadgeDrawable badge) {
+        mBadges.put(badgeId, badge);
+        int slot = findSlot(badgeId);
+        if (slot >= 0) {
+            badge.setNumber(mCounts.get(slot));
+        }
+    }
+
+    @MainThread
+    public void unbind(int badgeId) {
+        mBadges.remove(badgeId);
+    }
+
+    @MainThread
+    public void unbindAll() {
+        mBadges.clear();
+    }
+
+    private void markDirty(int slot) {
+        mDirty.set(slot, 1);
+        if (mFrameScheduled.compareAndSet(false, true)) {
+            mChoreographer.postFrameCallback(mPublishCallback);
+        }
+    }
+
+    private void publish() {
+        // Clear first, an update racing with the scan schedules another frame.
+        mFrameScheduled.set(false);
+        final SparseArray<BadgeDrawable> badges = mBadges;
+        for (int slot = 0; slot <= mMask; slot++) {
+            if (mDirty.get(slot) == 0 || mDirty.getAndSet(slot, 0) == 0) {
+                continue;
+            }
+            BadgeDrawable badge = badges.get(mKeys.get(slot));
+            if (badge != null) {
+                badge.setNumber(mCounts.get(slot));
+            }
+        }
+    }
+
+    private int findSlot(int badgeId) {
+        int slot = hash(badgeId) & mMask;
+        for (int probe = 0; probe <= mMask; probe++) {
+            int key = mKeys.get(slot);
+            if (key == badgeId) {
+                return slot;
+            }
+            if (key == EMPTY_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private int obtainSlot(int badgeId) {
+        if (badgeId == EMPTY_KEY) {
+            throw new IllegalArgumentException("Invalid badge id: " + badgeId);
+        }
+        int slot = hash(badgeId) & mMask;
+        for (int probe = 0; probe <= mMask; probe++) {
+            int key = mKeys.get(slot);
+            if (key == badgeId) {
+                return slot;
+            }
+            if (key == EMPTY_KEY) {
+                if (mKeys.compareAndSet(slot, EMPTY_KEY, badgeId)) {
+                    return slot;
+                }
+                // Lost the race, the winner may have claimed the slot for the same id.
+                if (mKeys.get(slot) == badgeId) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mMask;
+        }
+        throw new IllegalStateException("BadgeCountStore is full, capacity: " + (mMask + 1));
+    }
+
+    @VisibleForTesting
+    static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,54 @@
+package com.edgar.widget.badge;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Default badge dimensions of one configuration, shared by all badge styles.
+ * Dimensions are read once per configuration, so resources with any qualifier, such as
+ * density, font scale, screen width or orientation, resolve their own defaults.
+ **/
+final class BadgeDefaults {
+
+    /**
+     * Enough for a configuration change and a second display.
+     */
+    private static final int MAX_CONFIGURATIONS = 4;
+
+    /**
+     * Defaults keyed by copies of the configuration they were read with.
+     */
+    private static final LruCache<Configuration, BadgeDefaults> sDefaults = new LruCache<>(MAX_CONFIGURATIONS);
+
+    final int mBadgeRadius;
+    final int mHorizontalPadding;
+    final int mBadgeSize;
+    final int mTextSize;
+
+    private BadgeDefaults(@NonNull Resources resources) {
+        mBadgeRadius = resources.getDimensionPixelOffset(R.dimen.default_badge_radius);
+        mHorizontalPadding = resources.getDimensionPixelOffset(R.dimen.default_badge_long_text_horizontal_padding);
+        mBadgeSize = resources.getDimensionPixelSize(R.dimen.default_badge_size);
+        mTextSize = resources.getDimensionPixelSize(R.dimen.default_badge_text_size);
+    }
+
+    @NonNull
+    static BadgeDefaults get(@NonNull Resources resources) {
+        Configuration configuration = resources.getConfiguration();
+        BadgeDefaults defaults = sDefaults.get(configuration);
+        if (defaults == null) {
+            // Racing threads may both resolve, the defaults are equal so either one wins.
+            defaults = new BadgeDefaults(resources);
+            // The resources may update their configuration in place, the key must not change.
+            sDefaults.put(new Configuration(configuration), defaults);
+        }
+        return defaults;
+    }
+
+    static void clear() {
+        sDefaults.evictAll();
+    }
+}
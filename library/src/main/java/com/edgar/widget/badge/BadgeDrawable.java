@@ -1,33 +1,38 @@
 package com.edgar.widget.badge;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
 import android.text.TextPaint;
-import android.util.AttributeSet;
-import android.view.Gravity;
+import android.text.TextUtils;
+import android.util.SparseArray;
 import android.view.View;
 
-import androidx.annotation.AttrRes;
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
 import androidx.annotation.IntRange;
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
+import androidx.annotation.VisibleForTesting;
 import androidx.annotation.XmlRes;
 
+import com.edgar.widget.badge.layout.BadgeGeometry;
+import com.edgar.widget.badge.layout.BadgeLabels;
+import com.edgar.widget.badge.layout.BadgeLayoutEngine;
+import com.edgar.widget.badge.layout.TextMeasurer;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -41,18 +46,16 @@ import java.lang.ref.WeakReference;
 public class BadgeDrawable extends Drawable {
 
     private static final int DEFAULT_STYLE = R.style.DefaultBadge;
-    private static final int DEFAULT_THEME_ATTR = R.attr.badgeDrawableStyle;
+    static final int DEFAULT_THEME_ATTR = R.attr.badgeDrawableStyle;
 
-    private static final int MAX_CIRCULAR_BADGE_NUMBER_COUNT = 9;
-    private static final int DEFAULT_MAX_BADGE_NUMBER = 99;
-    private static final String DEFAULT_EXCEED_MAX_BADGE_NUMBER_SUFFIX = "+";
-    private static final int DEFAULT_BADGE_BACKGROUND_COLOR = 0xFFFF5471;
-    private static final int DEFAULT_BADGE_TEXT_COLOR = Color.WHITE;
+    static final int DEFAULT_MAX_BADGE_NUMBER = 99;
+    static final int DEFAULT_BADGE_BACKGROUND_COLOR = 0xFFFF5471;
+    static final int DEFAULT_BADGE_TEXT_COLOR = Color.WHITE;
 
-    public static final int TOP_END = Gravity.TOP | Gravity.END;
-    public static final int TOP_START = Gravity.TOP | Gravity.START;
-    public static final int BOTTOM_END = Gravity.BOTTOM | Gravity.END;
-    public static final int BOTTOM_START = Gravity.BOTTOM | Gravity.START;
+    public static final int TOP_END = BadgeLayoutEngine.TOP_END;
+    public static final int TOP_START = BadgeLayoutEngine.TOP_START;
+    public static final int BOTTOM_END = BadgeLayoutEngine.BOTTOM_END;
+    public static final int BOTTOM_START = BadgeLayoutEngine.BOTTOM_START;
 
     @IntDef({
             TOP_END,
@@ -74,162 +77,385 @@ public class BadgeDrawable extends Drawable {
     })
     public @interface ShapeStyle {}
 
+    /**
+     * Show the number with all digits, such as 1234.
+     */
+    public static final int NUMBER_FORMAT_PLAIN = 0;
+    /**
+     * Show large numbers in a short form, such as 1.2k or 3M.
+     */
+    public static final int NUMBER_FORMAT_COMPACT = 1;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @Target({ElementType.FIELD,ElementType.PARAMETER})
+    @IntDef({
+            NUMBER_FORMAT_PLAIN,
+            NUMBER_FORMAT_COMPACT
+    })
+    public @interface NumberFormat {}
+
+    public static final int ANIMATION_NONE = 0;
+    /**
+     * The old number rolls out upwards while the new number rolls in from below.
+     */
+    public static final int ANIMATION_ROLL = 1;
+    /**
+     * The badge shrinks and pops back to its size showing the new number.
+     */
+    public static final int ANIMATION_SCALE = 2;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @Target({ElementType.FIELD,ElementType.PARAMETER})
+    @IntDef({
+            ANIMATION_NONE,
+            ANIMATION_ROLL,
+            ANIMATION_SCALE
+    })
+    public @interface NumberAnimation {}
+
+    private static final long DEFAULT_ANIMATION_DURATION = 250;
+    /**
+     * Smallest scale of {@link #ANIMATION_SCALE}.
+     */
+    private static final float ANIMATION_MIN_SCALE = 0.7f;
+
     private RectF mBadgeBounds;
-    @ColorInt private int mBackgroundColor = DEFAULT_BADGE_BACKGROUND_COLOR;
-    private GradientDrawable mShapeDrawable;
-    private final TextPaint mBadgeTextPaint;
+    @NonNull private BadgeState mState;
+    /**
+     * True when {@link #mState} is owned by this drawable and can be written,
+     * otherwise it is shared and must be copied before the first change.
+     */
+    private boolean mMutated;
+    private final BadgeShapeRenderer mShapeRenderer;
+    private final Paint mShapePaint;
+    /**
+     * Text paint the badge is drawn with. The shared paint of the current text configuration,
+     * see {@link BadgePaints}, which is never changed here, or {@link #mFadedTextPaint}.
+     */
+    @NonNull private TextPaint mBadgeTextPaint;
+    /**
+     * Copy of the shared text paint with the drawable alpha, used while the badge is translucent.
+     * Shared paints are opaque, so fading a badge does not fill the shared paint cache.
+     */
+    @Nullable private TextPaint mFadedTextPaint;
+    /**
+     * Copy of the text paint faded by number animations, created on the first animation.
+     */
+    @Nullable private TextPaint mAnimationTextPaint;
+    private final Paint.FontMetrics mFontMetrics = new Paint.FontMetrics();
+    private char[] mLabelChars = new char[BadgeLabels.MAX_LABEL_LENGTH];
+    private int mLabelLength;
+    private float mTextBaselineOffset;
+    private boolean mTextBaselineDirty = true;
+    /**
+     * Label width measured by a {@link PreparedBadge}, negative when the label has to be measured.
+     */
+    private float mPreparedLabelWidth = -1f;
     @Nullable private WeakReference<View> mAnchorViewRef;
 
     private Rect mAnchorBounds = new Rect();
-    private int mAlpha = 255;
-    private float mBadgeRadii;
-    private int mBadgeSize;
-    private int mBadgeWidth;
-    private int mBadgeHeight;
-    private boolean mSizeAdjustRadius;
-    private int mNumber = 0;
-    private int mMaxNumber = DEFAULT_MAX_BADGE_NUMBER;
-    @ShapeStyle private int mShapeStyle = STYLE_DOT;
-    private int mHorizontalPadding;
-    private int mHorizontalOffset;
-    private int mVerticalOffset;
-    private int mGravity = TOP_END;
+    private final BadgeLayoutEngine.Spec mLayoutSpec = new BadgeLayoutEngine.Spec();
+    private final BadgeGeometry mGeometry = new BadgeGeometry();
+    private final TextMeasurer mTextMeasurer = new TextMeasurer() {
+        @Override
+        public float measureText(@NonNull char[] text, int start, int count) {
+            return calculateTextWidth(text, start, count);
+        }
+    };
+    /**
+     * True when {@link #mAnchorBounds} was set without an anchor view.
+     */
+    private boolean mHasAnchorBounds;
+    private final Rect mDirtyBounds = new Rect();
+    private final Rect mTempRect = new Rect();
+    /**
+     * True while the badge sets its own bounds, the change is invalidated once afterwards.
+     */
+    private boolean mSettingBounds;
+    /**
+     * Last drawn badge, null unless recording is enabled.
+     */
+    @Nullable private BadgeRecording mRecording;
+    /**
+     * Colors and tint of the current drawable state.
+     */
+    @ColorInt private int mBackgroundColor;
+    @ColorInt private int mTextColor;
+    @Nullable private PorterDuffColorFilter mTintFilter;
+    private final SparseArray<PorterDuffColorFilter> mTintFilters = new SparseArray<>();
+    @Nullable private PorterDuff.Mode mTintFilterMode;
+    @Nullable private ColorFilter mColorFilter;
+    @Nullable private BadgeAtlas mAtlas;
+    /**
+     * Atlas pixels of the current badge, null until drawn or after a change.
+     */
+    @Nullable private BadgeAtlas.Entry mAtlasEntry;
+    @NumberAnimation private int mNumberAnimation = ANIMATION_NONE;
+    private long mAnimationDurationNanos = DEFAULT_ANIMATION_DURATION * 1_000_000L;
+    private boolean mAnimating;
+    /**
+     * Frame time of the first animation frame, 0 until the first frame.
+     */
+    private long mAnimationStartNanos;
+    /**
+     * Interpolated animation progress from 0 to 1.
+     */
+    private float mAnimationFraction;
+    /**
+     * Label shown before the number changed, rolled out by {@link #ANIMATION_ROLL}.
+     */
+    private char[] mPreviousLabelChars = new char[BadgeLabels.MAX_LABEL_LENGTH];
+    private int mPreviousLabelLength;
+    /**
+     * Counters of this badge, created on the first recorded event.
+     */
+    @Nullable BadgeMetrics.Counters mMetrics;
+    @Nullable private Editor mEditor;
+    private int mEditDepth;
+    private int mPendingChanges;
+
+    private static final int CHANGED_PAINT = 1 << 1;
+    private static final int CHANGED_SHAPE = 1 << 2;
+    private static final int CHANGED_LABEL = 1 << 3;
+    private static final int CHANGED_BOUNDS = 1 << 4;
 
     @NonNull
     public static BadgeDrawable create(@NonNull Context context) {
-        return createFromAttributes(context, /* attrs= */ null, DEFAULT_THEME_ATTR, DEFAULT_STYLE);
+        return create(context, DEFAULT_STYLE);
     }
 
+    /**
+     * Create a badge from a style, the style is resolved once per theme and configuration
+     * and the resolved state is shared by all badges created from it.
+     */
     @NonNull
     public static BadgeDrawable create(@NonNull Context context, @StyleRes int id) {
-        return createFromAttributes(context, /* attrs= */ null, DEFAULT_THEME_ATTR, id);
+        return new BadgeDrawable(BadgeState.obtain(context, DEFAULT_THEME_ATTR, id));
     }
 
-    @SuppressLint("RestrictedApi")
+    /**
+     * Create a badge from a xml resource with a {@code <badge>} root tag. The resource is parsed
+     * once per theme and configuration, later badges share the resolved state.
+     */
+    @NonNull
     public static BadgeDrawable createFromResource(@NonNull Context context, @XmlRes int id) {
-        AttributeSet attrs = BadgeUtils.parseDrawableXml(context, id, "badge");
-        @StyleRes int style = attrs.getStyleAttribute();
-        if (style == 0) {
-            style = DEFAULT_STYLE;
-        }
-        return createFromAttributes(context, attrs, DEFAULT_THEME_ATTR, style);
+        return new BadgeDrawable(BadgeState.obtainFromResource(context, id, DEFAULT_THEME_ATTR, DEFAULT_STYLE));
     }
 
-    @NonNull
-    private static BadgeDrawable createFromAttributes(
-            @NonNull Context context,
-            AttributeSet attrs,
-            @AttrRes int defStyleAttr,
-            @StyleRes int defStyleRes) {
-        BadgeDrawable badge = new BadgeDrawable(context);
-        badge.loadDefaultStateFromAttributes(context, attrs, defStyleAttr, defStyleRes);
-        return badge;
-    }
-
-    private BadgeDrawable(Context context) {
-        Resources resources = context.getResources();
-        mBadgeRadii = resources.getDimensionPixelOffset(R.dimen.default_badge_radius);
-        mHorizontalPadding = resources.getDimensionPixelOffset(R.dimen.default_badge_long_text_horizontal_padding);
-        mBadgeSize = resources.getDimensionPixelSize(R.dimen.default_badge_size);
+    /**
+     * Drop all resolved badge styles, xml resources, default dimensions and shared text paints,
+     * call after the theme was changed in place.
+     */
+    public static void clearStyleCache() {
+        BadgeState.clearCache();
+    }
 
+    BadgeDrawable(@NonNull BadgeState state) {
+        mState = state;
         mBadgeBounds = new RectF();
-        mShapeDrawable = new GradientDrawable();
+        mShapeRenderer = new BadgeShapeRenderer();
+        mShapePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mShapePaint.setStyle(Paint.Style.FILL);
 
-        mBadgeTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        mBadgeTextPaint.setTextAlign(Paint.Align.CENTER);
-        mBadgeTextPaint.setColor(DEFAULT_BADGE_TEXT_COLOR);
-        mBadgeTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
-        setTextSize(resources.getDimensionPixelSize(R.dimen.default_badge_text_size));
+        mBadgeTextPaint = BadgePaints.obtainTextPaint(state.mTypeface, state.mTextSize,
+                state.mTextColor | 0xFF000000, /* colorFilter= */ null);
+        updateLabel();
+        updatePaints();
     }
 
-    private float calculateTextWidth(@Nullable CharSequence charSequence) {
-        if (charSequence == null) {
+    private float calculateTextWidth(@NonNull char[] chars, int start, int count) {
+        if (count == 0) {
             return 0f;
         }
-        return mBadgeTextPaint.measureText(charSequence, 0, charSequence.length());
+        if (mPreparedLabelWidth >= 0f) {
+            return mPreparedLabelWidth;
+        }
+        final long startNanos = BadgeMetrics.start();
+        float width = BadgeTextWidthCache.getInstance().measureText(mBadgeTextPaint, chars, start, count);
+        BadgeMetrics.record(this, BadgeMetrics.EVENT_TEXT_MEASURE, startNanos);
+        return width;
     }
 
-    private void loadDefaultStateFromAttributes(
-            Context context, AttributeSet attrs, @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
-        TypedArray ta = context.obtainStyledAttributes(attrs,R.styleable.BadgeDrawable,
-                defStyleAttr,defStyleRes);
-        setBackgroundColor(ta.getColor(R.styleable.BadgeDrawable_badge_backgroundColor,DEFAULT_BADGE_BACKGROUND_COLOR));
-
-        setBadgeRadii(ta.getDimension(R.styleable.BadgeDrawable_badge_radii,mBadgeRadii));
-        setBadgeSize(ta.getDimensionPixelSize(R.styleable.BadgeDrawable_badge_size,mBadgeSize));
-        setBadgeWidth(ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_width,-1));
-        setBadgeHeight(ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_height,-1));
+    /**
+     * Reset the badge to a resolved state, used to reuse pooled badges without reading resources.
+     * Everything set by the previous user is dropped: animation, recording, atlas, filters and anchor.
+     */
+    void resetState(@NonNull BadgeState state) {
+        mState = state;
+        // An edit left open by the previous user must not hold back the changes of the next.
+        mEditDepth = 0;
+        mPendingChanges = 0;
+        cancelNumberAnimation();
+        mNumberAnimation = ANIMATION_NONE;
+        mAnimationDurationNanos = DEFAULT_ANIMATION_DURATION * 1_000_000L;
+        mMutated = false;
+        if (mRecording != null) {
+            mRecording.release();
+            mRecording = null;
+        }
+        releaseAtlasEntry();
+        mAtlas = null;
+        mMetrics = null;
+        mAnchorViewRef = null;
+        mHasAnchorBounds = false;
+        mAnchorBounds.setEmpty();
+        mBadgeBounds.setEmpty();
+        setBounds(0, 0, 0, 0);
+        // Tint comes from the new state, filters of the previous user are dropped.
+        mColorFilter = null;
+        mTintFilter = null;
+        mTintFilters.clear();
+        mTintFilterMode = null;
+        updateTextPaint();
+        mTextBaselineDirty = true;
+        setVisible(true, /* restart= */ false);
+        onBadgeChanged(CHANGED_LABEL | CHANGED_PAINT | CHANGED_BOUNDS);
+    }
 
-        setSizeAdjustRadius(ta.getBoolean(R.styleable.BadgeDrawable_sizeAdjustRadii,false));
-        setBadgeGravity(ta.getInt(R.styleable.BadgeDrawable_badge_gravity,TOP_END));
+    /**
+     * Show a badge prepared on a background thread. Style, label and text metrics were
+     * resolved already, so only the badge bounds are computed here. The badge takes the style
+     * of the prepared badge.
+     * @throws IllegalArgumentException if the badge was prepared for another configuration,
+     * prepare it again after a configuration change
+     */
+    @MainThread
+    public void apply(@NonNull PreparedBadge prepared) {
+        final BadgeState state = prepared.mState;
+        if (!state.hasConfigurationOf(mState)) {
+            throw new IllegalArgumentException("Badge was prepared for another configuration");
+        }
+        mState = state;
+        cancelNumberAnimation();
+        mMutated = false;
+        updateTextPaint();
+        final int labelLength = prepared.mLabelLength;
+        if (mLabelChars.length < labelLength) {
+            mLabelChars = new char[labelLength];
+        }
+        System.arraycopy(prepared.mLabel, 0, mLabelChars, 0, labelLength);
+        mLabelLength = labelLength;
+        mPreparedLabelWidth = prepared.mLabelWidth;
+        mTextBaselineOffset = prepared.mTextBaselineOffset;
+        mTextBaselineDirty = false;
+        onBadgeChanged(CHANGED_PAINT | CHANGED_BOUNDS);
+    }
 
-        setTextSize(ta.getDimension(R.styleable.BadgeDrawable_badge_textSize,mBadgeTextPaint.getTextSize()));
-        setTextColor(ta.getColor(R.styleable.BadgeDrawable_badge_textColor,DEFAULT_BADGE_TEXT_COLOR));
+    /**
+     * Get the badge state for writing, a shared state is copied first.
+     */
+    @NonNull
+    private BadgeState editableState() {
+        if (!mMutated) {
+            mState = new BadgeState(mState);
+            mMutated = true;
+        }
+        return mState;
+    }
 
-        setHorizontalOffset(ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_horizontalOffset,0));
-        setVerticalOffset(ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_verticalOffset,0));
-        setHorizontalPadding(ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_horizontalPadding,mHorizontalPadding));
+    /**
+     * Start a batch of changes, bounds are recalculated and the badge invalidated
+     * once when {@link Editor#apply()} is called.
+     * <pre>
+     * badge.edit().number(5).textSize(size).backgroundColor(color).apply();
+     * </pre>
+     */
+    @NonNull
+    public Editor edit() {
+        if (mEditor == null) {
+            mEditor = new Editor();
+        }
+        mEditDepth++;
+        return mEditor;
+    }
 
-        setNumber(ta.getInt(R.styleable.BadgeDrawable_badge_number,0));
-        setMaxNumber(ta.getInt(R.styleable.BadgeDrawable_badge_maxNumber,DEFAULT_MAX_BADGE_NUMBER));
+    /**
+     * Record a change, it is applied right away unless an edit is in progress.
+     */
+    private void onBadgeChanged(int changes) {
+        mPendingChanges |= changes;
+        if (mEditDepth == 0) {
+            applyPendingChanges();
+        }
+    }
 
-        setShapeStyle(ta.getInt(R.styleable.BadgeDrawable_badge_shape,mShapeStyle));
-        setAlpha(ta.getInt(R.styleable.BadgeDrawable_badge_alpha,mAlpha));
-        ta.recycle();
+    private void applyPendingChanges() {
+        final int changes = mPendingChanges;
+        if (changes == 0) {
+            return;
+        }
+        mPendingChanges = 0;
+        if ((changes & CHANGED_LABEL) != 0) {
+            updateLabel();
+        }
+        if ((changes & CHANGED_PAINT) != 0) {
+            updatePaints();
+        }
+        if ((changes & CHANGED_BOUNDS) != 0) {
+            mBadgeBounds.roundOut(mDirtyBounds);
+            final long start = BadgeMetrics.start();
+            updateBadgeBounds();
+            BadgeMetrics.record(this, BadgeMetrics.EVENT_BOUNDS_UPDATE, start);
+            mBadgeBounds.roundOut(mTempRect);
+            mDirtyBounds.union(mTempRect);
+            // Bounds cover the old and the new badge, so only that region is redrawn.
+            setBoundsQuietly(mDirtyBounds);
+        } else if ((changes & CHANGED_SHAPE) != 0) {
+            updateShapeGeometry();
+        }
+        if (mRecording != null) {
+            mRecording.invalidate();
+        }
+        releaseAtlasEntry();
+        invalidateSelf();
     }
 
     public void setBadgeWidth(int badgeWidth) {
-        if (mBadgeWidth != badgeWidth) {
-            mBadgeWidth = badgeWidth;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mBadgeWidth != badgeWidth) {
+            editableState().mBadgeWidth = badgeWidth;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setBadgeHeight(int badgeHeight) {
-        if (mBadgeHeight != badgeHeight) {
-            mBadgeHeight = badgeHeight;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mBadgeHeight != badgeHeight) {
+            editableState().mBadgeHeight = badgeHeight;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setBadgeGravity(@BadgeGravity int gravity) {
-        if (mGravity != gravity) {
-            mGravity = gravity;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mGravity != gravity) {
+            editableState().mGravity = gravity;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setHorizontalPadding(int horizontalPadding) {
-        if (mHorizontalPadding != horizontalPadding) {
-            mHorizontalPadding = horizontalPadding;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mHorizontalPadding != horizontalPadding) {
+            editableState().mHorizontalPadding = horizontalPadding;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setHorizontalOffset(int horizontalOffset) {
-        if (mHorizontalOffset != horizontalOffset) {
-            mHorizontalOffset = horizontalOffset;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mHorizontalOffset != horizontalOffset) {
+            editableState().mHorizontalOffset = horizontalOffset;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setVerticalOffset(int verticalOffset) {
-        if (mVerticalOffset != verticalOffset) {
-            mVerticalOffset = verticalOffset;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mVerticalOffset != verticalOffset) {
+            editableState().mVerticalOffset = verticalOffset;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setSizeAdjustRadius(boolean sizeAdjustRadius) {
-        if (mSizeAdjustRadius != sizeAdjustRadius) {
-            mSizeAdjustRadius = sizeAdjustRadius;
-            invalidateSelf();
+        if (mState.mSizeAdjustRadius != sizeAdjustRadius) {
+            editableState().mSizeAdjustRadius = sizeAdjustRadius;
+            onBadgeChanged(CHANGED_SHAPE);
         }
     }
 
@@ -238,9 +464,9 @@ public class BadgeDrawable extends Drawable {
      * @param shapeStyle background shape style
      */
     public void setShapeStyle(@ShapeStyle int shapeStyle) {
-        if (mShapeStyle != shapeStyle) {
-            mShapeStyle = shapeStyle;
-            invalidateSelf();
+        if (mState.mShapeStyle != shapeStyle) {
+            editableState().mShapeStyle = shapeStyle;
+            onBadgeChanged(CHANGED_SHAPE);
         }
     }
 
@@ -249,18 +475,19 @@ public class BadgeDrawable extends Drawable {
      * @param typeface May be null. The typeface to be installed in the paint
      */
     public void setTypeface(Typeface typeface) {
-        Paint paint = mBadgeTextPaint;
-        if (paint.getTypeface() != typeface) {
-            paint.setTypeface(typeface);
-            invalidateSelf();
+        if (mState.mTypeface != typeface) {
+            editableState().mTypeface = typeface;
+            updateTextPaint();
+            mTextBaselineDirty = true;
+            mPreparedLabelWidth = -1f;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setBadgeSize(int badgeSize) {
-        if (mBadgeSize != badgeSize) {
-            mBadgeSize = badgeSize;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mBadgeSize != badgeSize) {
+            editableState().mBadgeSize = badgeSize;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
@@ -269,19 +496,29 @@ public class BadgeDrawable extends Drawable {
      * @param badgeRadii badge radius
      */
     public void setBadgeRadii(float badgeRadii) {
-        if (mBadgeRadii != badgeRadii) {
-            mBadgeRadii = badgeRadii;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mBadgeRadii != badgeRadii) {
+            editableState().mBadgeRadii = badgeRadii;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
     public void setMaxNumber(int maxNumber) {
         maxNumber = Math.max(0,maxNumber);
-        if (mMaxNumber != maxNumber) {
-            mMaxNumber = maxNumber;
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mMaxNumber != maxNumber) {
+            editableState().mMaxNumber = maxNumber;
+            onBadgeChanged(CHANGED_LABEL | CHANGED_BOUNDS);
+        }
+    }
+
+    /**
+     * Set how the number is written, compact labels follow the locale the badge was created with.
+     * Compact labels ignore a max number below 1000, such as the default one.
+     * @param numberFormat {@link #NUMBER_FORMAT_PLAIN} or {@link #NUMBER_FORMAT_COMPACT}
+     */
+    public void setNumberFormat(@NumberFormat int numberFormat) {
+        if (mState.mNumberFormat != numberFormat) {
+            editableState().mNumberFormat = numberFormat;
+            onBadgeChanged(CHANGED_LABEL | CHANGED_BOUNDS);
         }
     }
 
@@ -291,22 +528,131 @@ public class BadgeDrawable extends Drawable {
      */
     public void setNumber(int number) {
         number = Math.max(0, number);
-        if (number != mNumber) {
-            mNumber = number;
-            updateBadgeBounds();
+        if (number != mState.mNumber) {
+            if (mNumberAnimation != ANIMATION_NONE && getCallback() != null && isVisible()) {
+                startNumberAnimation();
+            }
+            editableState().mNumber = number;
+            onBadgeChanged(CHANGED_LABEL | CHANGED_BOUNDS);
+        }
+    }
+
+    public int getNumber() {
+        return mState.mNumber;
+    }
+
+    /**
+     * Show a text such as "NEW" instead of the number, the badge is sized like a long number.
+     * @param text badge text, null to show the number again
+     */
+    public void setText(@Nullable CharSequence text) {
+        String value = text == null ? null : text.toString();
+        if (!TextUtils.equals(mState.mText, value)) {
+            editableState().mText = value;
+            onBadgeChanged(CHANGED_LABEL | CHANGED_BOUNDS);
+        }
+    }
+
+    /**
+     * @return badge text, null when the badge shows a number
+     */
+    @Nullable
+    public CharSequence getText() {
+        return mState.mText;
+    }
+
+    /**
+     * Animate number changes, all animating badges advance from one shared frame callback.
+     * @param animation {@link #ANIMATION_NONE}, {@link #ANIMATION_ROLL} or {@link #ANIMATION_SCALE}
+     */
+    public void setNumberAnimation(@NumberAnimation int animation) {
+        mNumberAnimation = animation;
+        if (animation == ANIMATION_NONE) {
+            stopNumberAnimation();
+        }
+    }
+
+    public int getNumberAnimation() {
+        return mNumberAnimation;
+    }
+
+    public void setNumberAnimationDuration(long durationMillis) {
+        mAnimationDurationNanos = Math.max(0, durationMillis) * 1_000_000L;
+    }
+
+    public boolean isAnimating() {
+        return mAnimating;
+    }
+
+    private void startNumberAnimation() {
+        // Keep the label currently shown, even when a running animation is interrupted.
+        final int length = getDrawnLabelLength();
+        if (mPreviousLabelChars.length < length) {
+            mPreviousLabelChars = new char[mLabelChars.length];
+        }
+        System.arraycopy(mLabelChars, 0, mPreviousLabelChars, 0, length);
+        mPreviousLabelLength = length;
+        mAnimationStartNanos = 0L;
+        mAnimationFraction = 0f;
+        mAnimating = true;
+        BadgeAnimator.getInstance().start(this);
+    }
+
+    /**
+     * Drop a running animation without drawing its end, the badge is about to be redrawn anyway.
+     */
+    private void cancelNumberAnimation() {
+        if (mAnimating) {
+            mAnimating = false;
+            BadgeAnimator.getInstance().cancel(this);
+        }
+    }
+
+    private void stopNumberAnimation() {
+        if (mAnimating) {
+            mAnimating = false;
             invalidateSelf();
         }
     }
 
+    /**
+     * Advance the number animation.
+     * @return true while the animation needs more frames
+     */
+    boolean onAnimationFrame(long frameTimeNanos) {
+        if (!mAnimating) {
+            return false;
+        }
+        if (getCallback() == null || !isVisible()) {
+            mAnimating = false;
+            return false;
+        }
+        if (mAnimationStartNanos == 0L) {
+            mAnimationStartNanos = frameTimeNanos;
+        }
+        final long elapsed = frameTimeNanos - mAnimationStartNanos;
+        if (elapsed >= mAnimationDurationNanos) {
+            stopNumberAnimation();
+            return false;
+        }
+        float fraction = (float) elapsed / mAnimationDurationNanos;
+        // Accelerate decelerate, same curve as AccelerateDecelerateInterpolator.
+        mAnimationFraction = (float) (Math.cos((fraction + 1) * Math.PI) / 2.0) + 0.5f;
+        invalidateSelf();
+        return true;
+    }
+
     /**
      * Set badge text size
      * @param textSize text size
      */
     public void setTextSize(float textSize) {
-        if (mBadgeTextPaint.getTextSize() != textSize) {
-            mBadgeTextPaint.setTextSize(textSize);
-            updateBadgeBounds();
-            invalidateSelf();
+        if (mState.mTextSize != textSize) {
+            editableState().mTextSize = textSize;
+            updateTextPaint();
+            mTextBaselineDirty = true;
+            mPreparedLabelWidth = -1f;
+            onBadgeChanged(CHANGED_BOUNDS);
         }
     }
 
@@ -315,10 +661,29 @@ public class BadgeDrawable extends Drawable {
      * @param color text color
      */
     public void setTextColor(@ColorInt int color) {
-        Paint textPaint = mBadgeTextPaint;
-        if (textPaint.getColor() != color) {
-            textPaint.setColor(color);
-            invalidateSelf();
+        if (mState.mTextColor != color || mState.mTextColorList != null) {
+            BadgeState state = editableState();
+            state.mTextColor = color;
+            state.mTextColorList = null;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    /**
+     * Set badge text colors for drawable states, such as pressed or selected.
+     * @param colors text colors
+     */
+    public void setTextColor(@NonNull ColorStateList colors) {
+        if (!colors.isStateful()) {
+            // Stored as a plain color, compared by value so the same list is not applied twice.
+            setTextColor(colors.getDefaultColor());
+            return;
+        }
+        if (mState.mTextColorList != colors) {
+            BadgeState state = editableState();
+            state.mTextColor = colors.getDefaultColor();
+            state.mTextColorList = colors;
+            onBadgeChanged(CHANGED_PAINT);
         }
     }
 
@@ -327,12 +692,77 @@ public class BadgeDrawable extends Drawable {
      * @param color background color
      */
     public void setBackgroundColor(@ColorInt int color) {
-        if (mBackgroundColor != color) {
-            mBackgroundColor = color;
+        if (mState.mBackgroundColor != color || mState.mBackgroundColorList != null) {
+            BadgeState state = editableState();
+            state.mBackgroundColor = color;
+            state.mBackgroundColorList = null;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    /**
+     * Set badge background colors for drawable states, such as pressed or selected.
+     * @param colors background colors
+     */
+    public void setBackgroundColor(@NonNull ColorStateList colors) {
+        if (!colors.isStateful()) {
+            // Stored as a plain color, compared by value so the same list is not applied twice.
+            setBackgroundColor(colors.getDefaultColor());
+            return;
+        }
+        if (mState.mBackgroundColorList != colors) {
+            BadgeState state = editableState();
+            state.mBackgroundColor = colors.getDefaultColor();
+            state.mBackgroundColorList = colors;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    /**
+     * Record the badge once and replay the recording on later draws, until a setter changes
+     * the badge. Helps badges that are drawn much more often than they change.
+     * A RenderNode is used on API 29, a Picture on older versions.
+     * @param enabled true to record the badge
+     */
+    public void setRecordingEnabled(boolean enabled) {
+        if (enabled == (mRecording != null)) {
+            return;
+        }
+        if (enabled) {
+            mRecording = BadgeRecording.create();
+        } else {
+            mRecording.release();
+            mRecording = null;
+        }
+    }
+
+    public boolean isRecordingEnabled() {
+        return mRecording != null;
+    }
+
+    @VisibleForTesting
+    @Nullable
+    BadgeRecording getRecording() {
+        return mRecording;
+    }
+
+    /**
+     * Draw the badge from a shared atlas, badges that look the same are rasterized once.
+     * @param atlas shared atlas, null to draw the badge directly
+     */
+    public void setAtlas(@Nullable BadgeAtlas atlas) {
+        if (mAtlas != atlas) {
+            releaseAtlasEntry();
+            mAtlas = atlas;
             invalidateSelf();
         }
     }
 
+    @Nullable
+    public BadgeAtlas getAtlas() {
+        return mAtlas;
+    }
+
     public void setVisible(boolean visible) {
         setVisible(visible, /* restart= */ false);
     }
@@ -341,59 +771,236 @@ public class BadgeDrawable extends Drawable {
         if (mAnchorViewRef == null || mAnchorViewRef.get() != anchorView) {
             mAnchorViewRef = new WeakReference<>(anchorView);
         }
-        updateBadgeBounds();
+        mHasAnchorBounds = false;
+        onBadgeChanged(CHANGED_BOUNDS);
+    }
+
+    /**
+     * Place the badge relative to anchor bounds instead of an anchor view.
+     * @param anchorBounds anchor rectangle in the coordinates the badge is drawn in
+     */
+    void setAnchorBounds(@NonNull Rect anchorBounds) {
+        if (mAnchorViewRef == null && mHasAnchorBounds && mAnchorBounds.equals(anchorBounds)) {
+            return;
+        }
+        mAnchorViewRef = null;
+        mAnchorBounds.set(anchorBounds);
+        mHasAnchorBounds = true;
+        onBadgeChanged(CHANGED_BOUNDS);
+    }
+
+    /**
+     * Move the badge with its anchor without laying it out again.
+     * Only valid while the anchor size and the badge configuration stay the same.
+     */
+    void offsetBadge(int dx, int dy) {
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        mAnchorBounds.offset(dx, dy);
+        mBadgeBounds.roundOut(mDirtyBounds);
+        mBadgeBounds.offset(dx, dy);
+        mBadgeBounds.roundOut(mTempRect);
+        mDirtyBounds.union(mTempRect);
+        updateShapeGeometry();
+        if (mRecording != null) {
+            mRecording.invalidate();
+        }
+        setBoundsQuietly(mDirtyBounds);
         invalidateSelf();
     }
 
+    /**
+     * Set the bounds without the invalidation of {@link #setBounds(Rect)}, the caller
+     * invalidates the old and the new area once.
+     */
+    private void setBoundsQuietly(@NonNull Rect bounds) {
+        mSettingBounds = true;
+        setBounds(bounds);
+        mSettingBounds = false;
+    }
+
+    /**
+     * Every invalidation is counted in {@link BadgeMetrics#EVENT_INVALIDATE}.
+     */
+    @Override
+    public void invalidateSelf() {
+        if (mSettingBounds) {
+            return;
+        }
+        final long start = BadgeMetrics.start();
+        super.invalidateSelf();
+        BadgeMetrics.record(this, BadgeMetrics.EVENT_INVALIDATE, start);
+    }
+
     private void updateBadgeBounds() {
         View anchorView = mAnchorViewRef == null ? null : mAnchorViewRef.get();
-        if (anchorView == null) {
+        if (anchorView != null) {
+            anchorView.getDrawingRect(mAnchorBounds);
+        } else if (!mHasAnchorBounds) {
             return;
         }
-        anchorView.getDrawingRect(mAnchorBounds);
-        int width = mBadgeWidth > 0 ? mBadgeWidth : mBadgeSize;
-        int height = mBadgeHeight > 0 ? mBadgeHeight : mBadgeSize;
-        if (mBadgeWidth <= 0 && hasNumber() && mNumber > MAX_CIRCULAR_BADGE_NUMBER_COUNT) {
-            width = (int) (calculateTextWidth(getNumberText()) + mHorizontalPadding);
+        final BadgeState state = mState;
+        final BadgeLayoutEngine.Spec spec = mLayoutSpec;
+        spec.gravity = state.mGravity;
+        spec.badgeWidth = state.mBadgeWidth;
+        spec.badgeHeight = state.mBadgeHeight;
+        spec.badgeSize = state.mBadgeSize;
+        spec.horizontalPadding = state.mHorizontalPadding;
+        spec.horizontalOffset = state.mHorizontalOffset;
+        spec.verticalOffset = state.mVerticalOffset;
+        spec.badgeRadii = state.mBadgeRadii;
+        spec.sizeAdjustRadius = state.mSizeAdjustRadius;
+        final Rect anchorBounds = mAnchorBounds;
+        final BadgeGeometry geometry = mGeometry;
+        BadgeLayoutEngine.layout(spec, anchorBounds.left, anchorBounds.top, anchorBounds.right, anchorBounds.bottom,
+                mLabelChars, hasLabel() ? mLabelLength : 0, mTextMeasurer, geometry);
+        mBadgeBounds.set(geometry.left, geometry.top, geometry.right, geometry.bottom);
+        mShapeRenderer.update(mBadgeBounds, state.mShapeStyle, geometry.cornerRadius);
+    }
+
+    /**
+     * Style the badge state was resolved with.
+     */
+    @StyleRes
+    int getStyleRes() {
+        return mState.mStyleRes;
+    }
+
+    /**
+     * Badge rectangle in anchor view coordinates.
+     */
+    @NonNull
+    RectF getBadgeBounds() {
+        return mBadgeBounds;
+    }
+
+    /**
+     * Rebuild the cached label, only called when text, number or max number changed,
+     * so {@link #draw(Canvas)} never has to format the number.
+     */
+    private void updateLabel() {
+        final BadgeState state = mState;
+        int capacity = state.getLabelCapacity();
+        if (mLabelChars.length < capacity) {
+            mLabelChars = new char[capacity];
         }
+        mLabelLength = state.writeLabel(mLabelChars);
+        mPreparedLabelWidth = -1f;
+    }
+
+    private void updateShapeGeometry() {
+        final BadgeState state = mState;
+        final RectF bounds = mBadgeBounds;
+        float cornerRadius = BadgeLayoutEngine.resolveCornerRadius(
+                bounds.width(), bounds.height(), state.mBadgeRadii, state.mSizeAdjustRadius);
+        mShapeRenderer.update(bounds, state.mShapeStyle, cornerRadius);
+    }
+
+    /**
+     * Apply the colors and filters of the current drawable state to the paints.
+     * Background alpha is modulated by the drawable alpha, same as a GradientDrawable.
+     * The tint only applies to the background, a color filter applies to the whole badge.
+     */
+    private void updatePaints() {
+        updateStateColors();
+        int color = mBackgroundColor;
+        int alpha = Color.alpha(color) * (mState.mAlpha + (mState.mAlpha >> 7)) >> 8;
+        mShapePaint.setColor((color & 0x00FFFFFF) | (alpha << 24));
+        mShapePaint.setColorFilter(mColorFilter != null ? mColorFilter : mTintFilter);
+        updateTextPaint();
+    }
 
-        int left;
-        int top;
-        switch (mGravity) {
-            case TOP_START:
-            case BOTTOM_START:
-                left = mAnchorBounds.left + mHorizontalOffset;
-                break;
-            case TOP_END:
-            case BOTTOM_END:
-            default:
-                left = mAnchorBounds.right - width + mHorizontalOffset;
-                break;
+    /**
+     * Switch to the shared text paint of the current typeface, text size, text color, alpha and filter.
+     * The paint is shared, it must not be changed here.
+     */
+    private void updateTextPaint() {
+        final BadgeState state = mState;
+        final TextPaint shared = BadgePaints.obtainTextPaint(state.mTypeface, state.mTextSize,
+                mTextColor | 0xFF000000, mColorFilter);
+        if (state.mAlpha == 0xFF) {
+            mBadgeTextPaint = shared;
+            return;
         }
-        switch (mGravity) {
-            case BOTTOM_START:
-            case BOTTOM_END:
-                top = mAnchorBounds.bottom - height + mVerticalOffset;
-                break;
-            case TOP_START:
-            case TOP_END:
-            default:
-                top =  mAnchorBounds.top + mVerticalOffset;
-                break;
+        TextPaint faded = mFadedTextPaint;
+        if (faded == null) {
+            faded = new TextPaint(shared);
+            mFadedTextPaint = faded;
+        } else {
+            faded.set(shared);
         }
-        mBadgeBounds.set(left, top, left+width, top+height);
+        faded.setAlpha(state.mAlpha);
+        mBadgeTextPaint = faded;
+    }
+
+    /**
+     * @return text color of the current drawable state, with the drawable alpha as its alpha
+     */
+    @ColorInt
+    private int getDrawnTextColor() {
+        return (mTextColor & 0x00FFFFFF) | (mState.mAlpha << 24);
     }
 
-    private String getNumberText() {
-        String numberText = String.valueOf(mNumber);
-        if (mNumber > mMaxNumber) {
-            numberText = mMaxNumber+DEFAULT_EXCEED_MAX_BADGE_NUMBER_SUFFIX;
+    /**
+     * Look up colors and tint of the current drawable state.
+     * @return true if any of them changed
+     */
+    private boolean updateStateColors() {
+        final BadgeState state = mState;
+        final int[] stateSet = getState();
+        int backgroundColor = state.mBackgroundColorList == null ? state.mBackgroundColor
+                : state.mBackgroundColorList.getColorForState(stateSet, state.mBackgroundColor);
+        int textColor = state.mTextColorList == null ? state.mTextColor
+                : state.mTextColorList.getColorForState(stateSet, state.mTextColor);
+        PorterDuffColorFilter tintFilter = null;
+        if (state.mTint != null) {
+            int tintColor = state.mTint.getColorForState(stateSet, state.mTint.getDefaultColor());
+            tintFilter = obtainTintFilter(tintColor, state.mTintMode);
         }
-        return numberText;
+        boolean changed = backgroundColor != mBackgroundColor || textColor != mTextColor || tintFilter != mTintFilter;
+        mBackgroundColor = backgroundColor;
+        mTextColor = textColor;
+        mTintFilter = tintFilter;
+        return changed;
     }
 
-    private boolean hasNumber() {
-        return mNumber > 0;
+    /**
+     * Tint filters are cached by color, switching between states reuses them.
+     */
+    @NonNull
+    private PorterDuffColorFilter obtainTintFilter(int color, @NonNull PorterDuff.Mode mode) {
+        if (mTintFilterMode != mode) {
+            mTintFilters.clear();
+            mTintFilterMode = mode;
+        }
+        PorterDuffColorFilter filter = mTintFilters.get(color);
+        if (filter == null) {
+            filter = new PorterDuffColorFilter(color, mode);
+            mTintFilters.put(color, filter);
+        }
+        return filter;
+    }
+
+    private float getTextBaselineOffset() {
+        if (mTextBaselineDirty) {
+            Paint.FontMetrics fontMetrics = mFontMetrics;
+            mTextBaselineOffset = computeTextBaselineOffset(mBadgeTextPaint, fontMetrics);
+            mTextBaselineDirty = false;
+        }
+        return mTextBaselineOffset;
+    }
+
+    /**
+     * @return offset from the vertical center to the baseline that centers the text
+     */
+    static float computeTextBaselineOffset(@NonNull Paint textPaint, @NonNull Paint.FontMetrics fontMetrics) {
+        textPaint.getFontMetrics(fontMetrics);
+        return (fontMetrics.descent-fontMetrics.ascent)/2f - fontMetrics.descent;
+    }
+
+    private boolean hasLabel() {
+        return mState.mText != null ? mLabelLength > 0 : mState.mNumber > 0;
     }
 
     @Override
@@ -401,43 +1008,173 @@ public class BadgeDrawable extends Drawable {
         if (!isVisible()) {
             return;
         }
-        mShapeDrawable.setAlpha(mAlpha);
-        mShapeDrawable.setColor(mBackgroundColor);
-        mShapeDrawable.setBounds(
-                (int) mBadgeBounds.left,
-                (int) mBadgeBounds.top,
-                (int) mBadgeBounds.right,
-                (int) mBadgeBounds.bottom);
-        switch (mShapeStyle) {
-            case STYLE_DOT:
-                mShapeDrawable.setShape(GradientDrawable.OVAL);
-                break;
-            case STYLE_RECTANGLE:
-                mShapeDrawable.setShape(GradientDrawable.RECTANGLE);
-                break;
-            default:
-                break;
-        }
-        float radii = mBadgeRadii;
-        if (mSizeAdjustRadius) {
-            radii = Math.min(mBadgeBounds.width(), mBadgeBounds.height())/2f;
-        }
-        mShapeDrawable.setCornerRadius(radii);
-        mShapeDrawable.draw(canvas);
-        if (hasNumber()) {
-            drawText(canvas);
-        }
-    }
-
-    private void drawText(@NonNull Canvas canvas) {
+        final long start = BadgeMetrics.start();
+        drawFrame(canvas);
+        BadgeMetrics.record(this, BadgeMetrics.EVENT_DRAW, start);
+    }
+
+    private void drawFrame(@NonNull Canvas canvas) {
+        if (mAnimating) {
+            drawAnimationFrame(canvas);
+            return;
+        }
+        final BadgeAtlas atlas = mAtlas;
+        if (atlas != null) {
+            BadgeAtlas.Entry entry = mAtlasEntry;
+            if (entry == null) {
+                entry = atlas.obtain(this);
+                mAtlasEntry = entry;
+            }
+            if (entry != null) {
+                atlas.draw(canvas, entry, mBadgeBounds);
+                return;
+            }
+        }
+        final BadgeRecording recording = mRecording;
+        if (recording != null && recording.canDraw(canvas)) {
+            if (!recording.isValid()) {
+                mBadgeBounds.roundOut(mTempRect);
+                drawBadge(recording.beginRecording(mTempRect), mShapePaint, mBadgeTextPaint);
+                recording.endRecording();
+            }
+            recording.draw(canvas);
+            return;
+        }
+        drawBadge(canvas, mShapePaint, mBadgeTextPaint);
+    }
+
+    /**
+     * Draw with paints shared by several badges, the paints are configured for this badge first.
+     */
+    void drawShared(@NonNull Canvas canvas, @NonNull Paint shapePaint, @NonNull TextPaint textPaint) {
+        if (!isVisible()) {
+            return;
+        }
+        final BadgeState state = mState;
+        shapePaint.setColor(mShapePaint.getColor());
+        shapePaint.setColorFilter(mShapePaint.getColorFilter());
+        textPaint.setColor(getDrawnTextColor());
+        textPaint.setColorFilter(mColorFilter);
+        textPaint.setTypeface(state.mTypeface);
+        textPaint.setTextSize(state.mTextSize);
+        drawBadge(canvas, shapePaint, textPaint);
+    }
+
+    /**
+     * Draw the badge with its own paints, ignoring recording and atlas.
+     */
+    void drawBadge(@NonNull Canvas canvas) {
+        drawBadge(canvas, mShapePaint, mBadgeTextPaint);
+    }
+
+    @NonNull
+    BadgeState getBadgeState() {
+        return mState;
+    }
+
+    /**
+     * @return text color of the current drawable state
+     */
+    int getTextColor() {
+        return mTextColor;
+    }
+
+    /**
+     * @return background color with the drawable alpha applied
+     */
+    int getShapeColor() {
+        return mShapePaint.getColor();
+    }
+
+    /**
+     * @return filter of the background, the color filter or the tint
+     */
+    @Nullable
+    ColorFilter getShapeColorFilter() {
+        return mShapePaint.getColorFilter();
+    }
+
+    @NonNull
+    char[] getLabelChars() {
+        return mLabelChars;
+    }
+
+    /**
+     * @return length of the label as drawn, 0 when no label is shown
+     */
+    int getDrawnLabelLength() {
+        return hasLabel() ? mLabelLength : 0;
+    }
+
+    /**
+     * The atlas pixels this badge was drawn from are reused, draw again so recorded
+     * display lists do not show them.
+     */
+    void onAtlasEntryInvalidated(@NonNull BadgeAtlas.Entry entry) {
+        if (mAtlasEntry == entry) {
+            mAtlasEntry = null;
+            invalidateSelf();
+        }
+    }
+
+    private void releaseAtlasEntry() {
+        final BadgeAtlas.Entry entry = mAtlasEntry;
+        if (entry != null) {
+            entry.removeOwner(this);
+            mAtlasEntry = null;
+        }
+    }
+
+    private void drawBadge(@NonNull Canvas canvas, @NonNull Paint shapePaint, @NonNull Paint textPaint) {
+        mShapeRenderer.draw(canvas, shapePaint);
+        if (hasLabel()) {
+            drawText(canvas, textPaint);
+        }
+    }
+
+    private void drawAnimationFrame(@NonNull Canvas canvas) {
+        final RectF bounds = mBadgeBounds;
+        final float fraction = mAnimationFraction;
+        if (mNumberAnimation == ANIMATION_SCALE) {
+            // Shrink in the first half and grow back in the second, never drawing outside the bounds.
+            float scale = 1f - (1f - ANIMATION_MIN_SCALE) * (1f - Math.abs(2f * fraction - 1f));
+            int saveCount = canvas.save();
+            canvas.scale(scale, scale, bounds.centerX(), bounds.centerY());
+            drawBadge(canvas, mShapePaint, mBadgeTextPaint);
+            canvas.restoreToCount(saveCount);
+            return;
+        }
+        mShapeRenderer.draw(canvas, mShapePaint);
+        // The text paint is shared with other badges, fade a copy.
+        TextPaint textPaint = mAnimationTextPaint;
+        if (textPaint == null) {
+            textPaint = new TextPaint(mBadgeTextPaint);
+            mAnimationTextPaint = textPaint;
+        } else {
+            textPaint.set(mBadgeTextPaint);
+        }
+        final float baseline = bounds.centerY() + getTextBaselineOffset();
+        final float distance = bounds.height();
+        final int alpha = mState.mAlpha;
+        int saveCount = canvas.save();
+        canvas.clipRect(bounds);
+        if (mPreviousLabelLength > 0) {
+            textPaint.setAlpha((int) (alpha * (1f - fraction)));
+            canvas.drawText(mPreviousLabelChars, 0, mPreviousLabelLength,
+                    bounds.centerX(), baseline - distance * fraction, textPaint);
+        }
+        if (hasLabel()) {
+            textPaint.setAlpha((int) (alpha * fraction));
+            canvas.drawText(mLabelChars, 0, mLabelLength,
+                    bounds.centerX(), baseline + distance * (1f - fraction), textPaint);
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void drawText(@NonNull Canvas canvas, @NonNull Paint textPaint) {
         final RectF bounds = mBadgeBounds;
-        final Paint textPaint = mBadgeTextPaint;
-        textPaint.setAlpha(mAlpha);
-        String numberText = getNumberText();
-        textPaint.measureText(numberText,0,numberText.length());
-        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
-        float centerY = bounds.centerY()- fontMetrics.descent + (fontMetrics.descent-fontMetrics.ascent)/2f;
-        canvas.drawText(numberText, bounds.centerX(), centerY,textPaint);
+        float baseline = bounds.centerY() + getTextBaselineOffset();
+        canvas.drawText(mLabelChars, 0, mLabelLength, bounds.centerX(), baseline, textPaint);
     }
 
     /**
@@ -447,15 +1184,59 @@ public class BadgeDrawable extends Drawable {
      */
     @Override
     public void setAlpha(@IntRange(from = 0,to = 255) int alpha) {
-        if (mAlpha != alpha) {
-            mAlpha = alpha;
-            invalidateSelf();
+        if (mState.mAlpha != alpha) {
+            editableState().mAlpha = alpha;
+            onBadgeChanged(CHANGED_PAINT);
         }
     }
 
+    @Override
+    public int getAlpha() {
+        return mState.mAlpha;
+    }
+
     @Override
     public void setColorFilter(@Nullable ColorFilter colorFilter) {
-        // Intentionally empty.
+        if (mColorFilter != colorFilter) {
+            mColorFilter = colorFilter;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    @Nullable
+    @Override
+    public ColorFilter getColorFilter() {
+        return mColorFilter;
+    }
+
+    /**
+     * Tint the badge background, the text keeps its color.
+     */
+    @Override
+    public void setTintList(@Nullable ColorStateList tint) {
+        if (mState.mTint != tint) {
+            editableState().mTint = tint;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    @Override
+    public void setTintMode(@Nullable PorterDuff.Mode tintMode) {
+        if (tintMode == null) {
+            tintMode = BadgeState.DEFAULT_TINT_MODE;
+        }
+        if (mState.mTintMode != tintMode) {
+            editableState().mTintMode = tintMode;
+            onBadgeChanged(CHANGED_PAINT);
+        }
+    }
+
+    @Override
+    public boolean isStateful() {
+        final BadgeState state = mState;
+        return (state.mBackgroundColorList != null && state.mBackgroundColorList.isStateful())
+                || (state.mTextColorList != null && state.mTextColorList.isStateful())
+                || (state.mTint != null && state.mTint.isStateful());
     }
 
     @Override
@@ -465,6 +1246,167 @@ public class BadgeDrawable extends Drawable {
 
     @Override
     public boolean onStateChange(int[] state) {
-        return super.onStateChange(state);
+        if (updateStateColors()) {
+            onBadgeChanged(CHANGED_PAINT);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Batched badge changes, obtained from {@link #edit()}.
+     * Nothing is recalculated or invalidated until {@link #apply()}.
+     */
+    public final class Editor {
+
+        private Editor() {
+        }
+
+        @NonNull
+        public Editor number(int number) {
+            setNumber(number);
+            return this;
+        }
+
+        @NonNull
+        public Editor maxNumber(int maxNumber) {
+            setMaxNumber(maxNumber);
+            return this;
+        }
+
+        @NonNull
+        public Editor text(@Nullable CharSequence text) {
+            setText(text);
+            return this;
+        }
+
+        @NonNull
+        public Editor numberFormat(@NumberFormat int numberFormat) {
+            setNumberFormat(numberFormat);
+            return this;
+        }
+
+        @NonNull
+        public Editor textSize(float textSize) {
+            setTextSize(textSize);
+            return this;
+        }
+
+        @NonNull
+        public Editor textColor(@ColorInt int color) {
+            setTextColor(color);
+            return this;
+        }
+
+        @NonNull
+        public Editor typeface(@Nullable Typeface typeface) {
+            setTypeface(typeface);
+            return this;
+        }
+
+        @NonNull
+        public Editor backgroundColor(@ColorInt int color) {
+            setBackgroundColor(color);
+            return this;
+        }
+
+        @NonNull
+        public Editor alpha(@IntRange(from = 0,to = 255) int alpha) {
+            setAlpha(alpha);
+            return this;
+        }
+
+        @NonNull
+        public Editor shapeStyle(@ShapeStyle int shapeStyle) {
+            setShapeStyle(shapeStyle);
+            return this;
+        }
+
+        @NonNull
+        public Editor badgeSize(int badgeSize) {
+            setBadgeSize(badgeSize);
+            return this;
+        }
+
+        @NonNull
+        public Editor badgeWidth(int badgeWidth) {
+            setBadgeWidth(badgeWidth);
+            return this;
+        }
+
+        @NonNull
+        public Editor badgeHeight(int badgeHeight) {
+            setBadgeHeight(badgeHeight);
+            return this;
+        }
+
+        @NonNull
+        public Editor badgeRadii(float badgeRadii) {
+            setBadgeRadii(badgeRadii);
+            return this;
+        }
+
+        @NonNull
+        public Editor sizeAdjustRadius(boolean sizeAdjustRadius) {
+            setSizeAdjustRadius(sizeAdjustRadius);
+            return this;
+        }
+
+        @NonNull
+        public Editor gravity(@BadgeGravity int gravity) {
+            setBadgeGravity(gravity);
+            return this;
+        }
+
+        @NonNull
+        public Editor horizontalPadding(int horizontalPadding) {
+            setHorizontalPadding(horizontalPadding);
+            return this;
+        }
+
+        @NonNull
+        public Editor horizontalOffset(int horizontalOffset) {
+            setHorizontalOffset(horizontalOffset);
+            return this;
+        }
+
+        @NonNull
+        public Editor verticalOffset(int verticalOffset) {
+            setVerticalOffset(verticalOffset);
+            return this;
+        }
+
+        /**
+         * Finish the edit, recalculate what changed and invalidate once.
+         */
+        public void apply() {
+            if (mEditDepth > 0 && --mEditDepth == 0) {
+                applyPendingChanges();
+            }
+        }
+    }
+
+    /**
+     * Make this drawable mutable, the badge state is no longer shared with other badges.
+     * Badges copy shared state before their first change anyway, so calling this is optional.
+     */
+    @NonNull
+    @Override
+    public Drawable mutate() {
+        editableState();
+        return this;
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return super.getChangingConfigurations() | mState.getChangingConfigurations();
+    }
+
+    @NonNull
+    @Override
+    public ConstantState getConstantState() {
+        // The state is shared from now on, copy it before the next change.
+        mMutated = false;
+        return mState;
     }
 }
@@ -0,0 +1,123 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.view.View;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.StyleRes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Pool of badges for list and grid items, badges are recycled per style.
+ * An obtained badge is reset to the cached style state, resources are not read again.
+ * <pre>
+ * // onBindViewHolder
+ * pool.detach(holder.icon);
+ * pool.attach(R.style.BadgeTextLong, holder.icon).setNumber(item.unread);
+ * </pre>
+ **/
+@MainThread
+public class BadgeDrawablePool {
+
+    private static final int DEFAULT_MAX_POOL_SIZE = 32;
+
+    private final SparseArray<ArrayDeque<BadgeDrawable>> mPools = new SparseArray<>();
+    private final ArrayList<BadgeDrawable> mDetached = new ArrayList<>();
+    /**
+     * Badges handed out by this pool, weak so badges dropped by their users are not kept.
+     */
+    private final Set<BadgeDrawable> mLeased =
+            Collections.newSetFromMap(new WeakHashMap<BadgeDrawable, Boolean>());
+    private final int mMaxPoolSize;
+
+    public BadgeDrawablePool() {
+        this(DEFAULT_MAX_POOL_SIZE);
+    }
+
+    /**
+     * @param maxPoolSize max number of idle badges kept for each style
+     */
+    public BadgeDrawablePool(int maxPoolSize) {
+        mMaxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * Get a badge of the style, a recycled badge is reused when available.
+     */
+    @NonNull
+    public BadgeDrawable obtain(@NonNull Context context, @StyleRes int style) {
+        BadgeState state = BadgeState.obtain(context, BadgeDrawable.DEFAULT_THEME_ATTR, style);
+        ArrayDeque<BadgeDrawable> pool = mPools.get(style);
+        BadgeDrawable badge = pool == null ? null : pool.poll();
+        if (badge == null) {
+            badge = new BadgeDrawable(state);
+        } else {
+            badge.resetState(state);
+        }
+        mLeased.add(badge);
+        return badge;
+    }
+
+    /**
+     * Return a detached badge to the pool, it must not be used afterwards.
+     */
+    public void recycle(@NonNull BadgeDrawable badge) {
+        if (badge.getCallback() != null) {
+            throw new IllegalStateException("Badge is still attached, detach it before recycling");
+        }
+        mLeased.remove(badge);
+        int style = badge.getStyleRes();
+        ArrayDeque<BadgeDrawable> pool = mPools.get(style);
+        if (pool == null) {
+            pool = new ArrayDeque<>(mMaxPoolSize);
+            mPools.put(style, pool);
+        }
+        if (pool.size() < mMaxPoolSize) {
+            pool.offer(badge);
+        }
+    }
+
+    /**
+     * Obtain a badge of the style and attach it to the anchor.
+     */
+    @NonNull
+    public BadgeDrawable attach(@StyleRes int style, @NonNull View anchor) {
+        BadgeDrawable badge = obtain(anchor.getContext(), style);
+        BadgeUtils.attachBadgeDrawable(badge, anchor);
+        return badge;
+    }
+
+    /**
+     * Detach all badges of the anchor and recycle those obtained from this pool.
+     * Other badges are only detached, their owners may still use them.
+     */
+    public void detach(@NonNull View anchor) {
+        BadgeAttachment attachment = BadgeAttachment.get(anchor);
+        if (attachment == null) {
+            return;
+        }
+        final ArrayList<BadgeDrawable> detached = mDetached;
+        attachment.removeAll(detached);
+        for (int i = 0, size = detached.size(); i < size; i++) {
+            BadgeDrawable badge = detached.get(i);
+            if (mLeased.contains(badge)) {
+                recycle(badge);
+            }
+        }
+        detached.clear();
+    }
+
+    /**
+     * Drop all idle badges.
+     */
+    public void clear() {
+        mPools.clear();
+    }
+}
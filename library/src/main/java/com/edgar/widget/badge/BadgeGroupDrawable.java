@@ -0,0 +1,370 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+
+/**
+ * Draws the badges of several anchor views from the overlay of a common parent,
+ * such as the items of a bottom navigation bar or a tab strip.
+ * The group has one layout listener, places every badge with the usual gravity and offset
+ * rules, and draws all badges in one pass with shared paints.
+ * With anchor tracking enabled, anchors that scroll or translate inside the host move their
+ * badges before every draw, badges are only laid out again when an anchor size changes.
+ * <pre>
+ * BadgeGroupDrawable group = new BadgeGroupDrawable(navigationBar);
+ * group.addBadge(homeItem, homeBadge);
+ * group.addBadge(messageItem, messageBadge);
+ * group.attach();
+ * </pre>
+ **/
+public class BadgeGroupDrawable extends Drawable implements Drawable.Callback {
+
+    private final ViewGroup mHost;
+    private final ArrayList<View> mAnchors = new ArrayList<>();
+    private final ArrayList<BadgeDrawable> mBadges = new ArrayList<>();
+    /**
+     * Anchor bounds in host coordinates the badges were placed with, by anchor index.
+     */
+    private final ArrayList<Rect> mPlacedAnchorBounds = new ArrayList<>();
+    private final Paint mShapePaint;
+    private final TextPaint mTextPaint;
+    private final Rect mAnchorBounds = new Rect();
+    private final Rect mGroupBounds = new Rect();
+    /**
+     * Area to redraw besides the old and the new group bounds, such as a removed badge.
+     */
+    private final Rect mDirtyBounds = new Rect();
+    private boolean mAttached;
+    private boolean mBatching;
+    private boolean mInvalidatePending;
+    /**
+     * True while the group sets its own bounds, the change is invalidated once afterwards.
+     */
+    private boolean mSettingBounds;
+    private boolean mTracking;
+    private final PreDrawRegistration mPreDrawRegistration;
+
+    private final View.OnLayoutChangeListener mLayoutListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            layoutBadges();
+        }
+    };
+
+    /**
+     * @param host common parent of the anchor views, badges are drawn in its overlay
+     */
+    public BadgeGroupDrawable(@NonNull ViewGroup host) {
+        mHost = host;
+        mPreDrawRegistration = new PreDrawRegistration(host, new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                trackAnchors();
+                return true;
+            }
+        });
+        mShapePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mShapePaint.setStyle(Paint.Style.FILL);
+        mTextPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * Add a badge for an anchor view, the anchor must be a descendant of the host.
+     * The badge must not be attached anywhere else.
+     */
+    public void addBadge(@NonNull View anchor, @NonNull BadgeDrawable badge) {
+        if (mBadges.contains(badge)) {
+            return;
+        }
+        mAnchors.add(anchor);
+        mBadges.add(badge);
+        mPlacedAnchorBounds.add(new Rect());
+        badge.setCallback(this);
+        if (mAttached) {
+            layoutBadges();
+        }
+    }
+
+    public void removeBadge(@NonNull BadgeDrawable badge) {
+        int index = mBadges.indexOf(badge);
+        if (index < 0) {
+            return;
+        }
+        mAnchors.remove(index);
+        mBadges.remove(index);
+        mPlacedAnchorBounds.remove(index);
+        badge.setCallback(null);
+        // Redraw the area the removed badge covered, even when no other badge changes.
+        mDirtyBounds.union(badge.getBounds());
+        if (mAttached) {
+            placeBadges();
+        }
+        mInvalidatePending = false;
+        invalidateGroup();
+    }
+
+    /**
+     * Badge of an anchor view, null if the anchor has none.
+     */
+    @Nullable
+    public BadgeDrawable getBadge(@NonNull View anchor) {
+        int index = mAnchors.indexOf(anchor);
+        return index < 0 ? null : mBadges.get(index);
+    }
+
+    /**
+     * Add the group to the host overlay.
+     */
+    public void attach() {
+        if (mAttached) {
+            return;
+        }
+        mAttached = true;
+        mHost.getOverlay().add(this);
+        mHost.addOnLayoutChangeListener(mLayoutListener);
+        if (mTracking) {
+            mPreDrawRegistration.register();
+        }
+        layoutBadges();
+    }
+
+    /**
+     * Follow anchors that scroll or translate inside the host, checked before every draw.
+     */
+    public void setAnchorTrackingEnabled(boolean enabled) {
+        if (mTracking == enabled) {
+            return;
+        }
+        mTracking = enabled;
+        if (!mAttached) {
+            return;
+        }
+        if (enabled) {
+            mPreDrawRegistration.register();
+            trackAnchors();
+        } else {
+            mPreDrawRegistration.unregister();
+        }
+    }
+
+    public void detach() {
+        if (!mAttached) {
+            return;
+        }
+        mAttached = false;
+        if (mTracking) {
+            mPreDrawRegistration.unregister();
+        }
+        mHost.removeOnLayoutChangeListener(mLayoutListener);
+        mHost.getOverlay().remove(this);
+    }
+
+    /**
+     * Place all badges relative to their anchors, then invalidate once.
+     */
+    private void layoutBadges() {
+        placeBadges();
+        if (mInvalidatePending) {
+            mInvalidatePending = false;
+            invalidateGroup();
+        }
+    }
+
+    /**
+     * Place all badges relative to their anchors, their invalidations are only collected.
+     */
+    private void placeBadges() {
+        mBatching = true;
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        final Rect anchorBounds = mAnchorBounds;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            if (!getAnchorBounds(mAnchors.get(i), anchorBounds)) {
+                continue;
+            }
+            mPlacedAnchorBounds.get(i).set(anchorBounds);
+            badges.get(i).setAnchorBounds(anchorBounds);
+        }
+        mBatching = false;
+    }
+
+    /**
+     * Move badges whose anchors moved since they were placed, lay out those whose anchors resized.
+     */
+    private void trackAnchors() {
+        mBatching = true;
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        final Rect anchorBounds = mAnchorBounds;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            final Rect placed = mPlacedAnchorBounds.get(i);
+            if (!getAnchorBounds(mAnchors.get(i), anchorBounds) || anchorBounds.equals(placed)) {
+                continue;
+            }
+            if (anchorBounds.width() == placed.width() && anchorBounds.height() == placed.height()) {
+                badges.get(i).offsetBadge(anchorBounds.left - placed.left, anchorBounds.top - placed.top);
+            } else {
+                badges.get(i).setAnchorBounds(anchorBounds);
+            }
+            placed.set(anchorBounds);
+        }
+        mBatching = false;
+        if (mInvalidatePending) {
+            mInvalidatePending = false;
+            invalidateGroup();
+        }
+    }
+
+    /**
+     * Get the visible bounds of an anchor in host coordinates, including translation and
+     * scrolling of the anchor's parents. Scale and rotation are not applied.
+     * @return false if the anchor is not a descendant of the host
+     */
+    private boolean getAnchorBounds(@NonNull View anchor, @NonNull Rect out) {
+        if (anchor == mHost) {
+            // The overlay is drawn in scrolled host coordinates.
+            anchor.getDrawingRect(out);
+            return true;
+        }
+        float left = 0f;
+        float top = 0f;
+        View view = anchor;
+        while (view != mHost) {
+            left += view.getLeft() + view.getTranslationX();
+            top += view.getTop() + view.getTranslationY();
+            ViewParent parent = view.getParent();
+            if (!(parent instanceof View)) {
+                return false;
+            }
+            view = (View) parent;
+            if (view != mHost) {
+                left -= view.getScrollX();
+                top -= view.getScrollY();
+            }
+        }
+        int l = Math.round(left);
+        int t = Math.round(top);
+        out.set(l, t, l + anchor.getWidth(), t + anchor.getHeight());
+        return true;
+    }
+
+    /**
+     * Redraw the badges before and after a change once, then keep the group bounds covering
+     * all badges, so invalidation never reaches past them.
+     */
+    private void invalidateGroup() {
+        final Rect groupBounds = mGroupBounds;
+        groupBounds.setEmpty();
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            groupBounds.union(badges.get(i).getBounds());
+        }
+        final Rect dirtyBounds = mDirtyBounds;
+        dirtyBounds.union(getBounds());
+        dirtyBounds.union(groupBounds);
+        // The host redraws the bounds the group has when it is invalidated.
+        setBoundsQuietly(dirtyBounds);
+        invalidateSelf();
+        setBoundsQuietly(groupBounds);
+        dirtyBounds.setEmpty();
+    }
+
+    /**
+     * Set the bounds without the invalidation of {@link #setBounds(Rect)}.
+     */
+    private void setBoundsQuietly(@NonNull Rect bounds) {
+        mSettingBounds = true;
+        setBounds(bounds);
+        mSettingBounds = false;
+    }
+
+    @Override
+    public void invalidateSelf() {
+        if (!mSettingBounds) {
+            super.invalidateSelf();
+        }
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (!isVisible()) {
+            return;
+        }
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            badges.get(i).drawShared(canvas, mShapePaint, mTextPaint);
+        }
+    }
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable who) {
+        if (mBatching) {
+            mInvalidatePending = true;
+            return;
+        }
+        invalidateGroup();
+    }
+
+    @Override
+    public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        scheduleSelf(what, when);
+    }
+
+    @Override
+    public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        unscheduleSelf(what);
+    }
+
+    /**
+     * Apply alpha to every badge of the group.
+     */
+    @Override
+    public void setAlpha(@IntRange(from = 0,to = 255) int alpha) {
+        mBatching = true;
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            badges.get(i).setAlpha(alpha);
+        }
+        mBatching = false;
+        if (mInvalidatePending) {
+            mInvalidatePending = false;
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * Apply the color filter to every badge of the group.
+     */
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        mBatching = true;
+        final ArrayList<BadgeDrawable> badges = mBadges;
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            badges.get(i).setColorFilter(colorFilter);
+        }
+        mBatching = false;
+        if (mInvalidatePending) {
+            mInvalidatePending = false;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
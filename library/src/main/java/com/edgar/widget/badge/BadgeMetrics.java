@@ -0,0 +1,197 @@
+package com.edgar.widget.badge;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Opt-in counters and timings of badge work, per badge and for all badges.
+ * <pre>
+ * BadgeMetrics.setEnabled(true);
+ * ...
+ * BadgeMetrics.Snapshot snapshot = BadgeMetrics.snapshot();
+ * telemetry.report("badge_draw_ns", snapshot.getTotalNanos(BadgeMetrics.EVENT_DRAW));
+ * </pre>
+ * When disabled every hook is a single static field read.
+ **/
+public final class BadgeMetrics {
+
+    /**
+     * {@link BadgeDrawable#draw(android.graphics.Canvas)} calls.
+     */
+    public static final int EVENT_DRAW = 0;
+    /**
+     * Badge bounds computed from the anchor.
+     */
+    public static final int EVENT_BOUNDS_UPDATE = 1;
+    /**
+     * Badge invalidations of any cause, one per applied change or batch of changes is expected.
+     */
+    public static final int EVENT_INVALIDATE = 2;
+    /**
+     * Label width lookups, including those answered by the width cache.
+     */
+    public static final int EVENT_TEXT_MEASURE = 3;
+    /**
+     * Layout change callbacks of anchors with attached badges. Only counted in aggregate,
+     * one callback serves all badges of the anchor.
+     */
+    public static final int EVENT_LAYOUT_CALLBACK = 4;
+
+    static final int EVENT_COUNT = 5;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({
+            EVENT_DRAW,
+            EVENT_BOUNDS_UPDATE,
+            EVENT_INVALIDATE,
+            EVENT_TEXT_MEASURE,
+            EVENT_LAYOUT_CALLBACK
+    })
+    public @interface Event {}
+
+    /**
+     * Not volatile, hooks may see a change a little late, which is fine for metrics.
+     */
+    static boolean sEnabled;
+
+    private static final AtomicLongArray sCounts = new AtomicLongArray(EVENT_COUNT);
+    private static final AtomicLongArray sNanos = new AtomicLongArray(EVENT_COUNT);
+
+    private BadgeMetrics() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @return start time of a recorded event, 0 when metrics are disabled
+     */
+    static long start() {
+        return sEnabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record an event started with {@link #start()}.
+     * @param badge badge the event belongs to, null to only count it in aggregate
+     */
+    static void record(@Nullable BadgeDrawable badge, @Event int event, long startNanos) {
+        if (startNanos == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        sCounts.incrementAndGet(event);
+        sNanos.addAndGet(event, nanos);
+        if (badge != null) {
+            Counters counters = badge.mMetrics;
+            if (counters == null) {
+                counters = new Counters();
+                badge.mMetrics = counters;
+            }
+            counters.mCounts[event]++;
+            counters.mNanos[event] += nanos;
+        }
+    }
+
+    /**
+     * @return counters of all badges since metrics were enabled or reset
+     */
+    @NonNull
+    public static Snapshot snapshot() {
+        long[] counts = new long[EVENT_COUNT];
+        long[] nanos = new long[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            counts[i] = sCounts.get(i);
+            nanos[i] = sNanos.get(i);
+        }
+        return new Snapshot(counts, nanos);
+    }
+
+    /**
+     * @return counters of one badge, call on the main thread
+     */
+    @NonNull
+    public static Snapshot snapshot(@NonNull BadgeDrawable badge) {
+        Counters counters = badge.mMetrics;
+        if (counters == null) {
+            return new Snapshot(new long[EVENT_COUNT], new long[EVENT_COUNT]);
+        }
+        return new Snapshot(counters.mCounts.clone(), counters.mNanos.clone());
+    }
+
+    /**
+     * Clear aggregate counters, badges keep their own counters until {@link #reset(BadgeDrawable)}.
+     */
+    public static void reset() {
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            sCounts.set(i, 0L);
+            sNanos.set(i, 0L);
+        }
+    }
+
+    public static void reset(@NonNull BadgeDrawable badge) {
+        badge.mMetrics = null;
+    }
+
+    /**
+     * Counters of one badge, only written on the main thread.
+     */
+    static final class Counters {
+        final long[] mCounts = new long[EVENT_COUNT];
+        final long[] mNanos = new long[EVENT_COUNT];
+    }
+
+    /**
+     * Immutable copy of counters.
+     */
+    public static final class Snapshot {
+        private final long[] mCounts;
+        private final long[] mNanos;
+
+        Snapshot(@NonNull long[] counts, @NonNull long[] nanos) {
+            mCounts = counts;
+            mNanos = nanos;
+        }
+
+        public long getCount(@Event int event) {
+            return mCounts[event];
+        }
+
+        public long getTotalNanos(@Event int event) {
+            return mNanos[event];
+        }
+
+        /**
+         * @return average duration of an event, 0 if it never happened
+         */
+        public long getAverageNanos(@Event int event) {
+            long count = mCounts[event];
+            return count == 0 ? 0L : mNanos[event] / count;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "BadgeMetrics.Snapshot{"
+                    + "draw=" + format(EVENT_DRAW)
+                    + ", boundsUpdate=" + format(EVENT_BOUNDS_UPDATE)
+                    + ", invalidate=" + format(EVENT_INVALIDATE)
+                    + ", textMeasure=" + format(EVENT_TEXT_MEASURE)
+                    + ", layoutCallback=" + format(EVENT_LAYOUT_CALLBACK)
+                    + '}';
+        }
+
+        private String format(@Event int event) {
+            return mCounts[event] + "/" + mNanos[event] + "ns";
+        }
+    }
+}
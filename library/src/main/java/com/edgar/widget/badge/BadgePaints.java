@@ -0,0 +1,97 @@
+package com.edgar.widget.badge;
+
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Text paints shared by badges with the same typeface, text size, text color and color filter.
+ * Shared paints are opaque, a translucent badge draws a copy with its alpha, so fades and alpha
+ * animations do not evict the paints shared by other badges.
+ * A shared paint is never changed after it was created, it may be drawn from any badge in
+ * any order. A badge that needs to fade its text copies the paint first.
+ **/
+final class BadgePaints {
+
+    private static final int MAX_SHARED_PAINTS = 64;
+
+    private static final LruCache<Key, TextPaint> sTextPaints = new LruCache<>(MAX_SHARED_PAINTS);
+    /**
+     * Reused for lookups, guarded by the class lock.
+     */
+    private static final Key sLookupKey = new Key();
+
+    private BadgePaints() {
+    }
+
+    @NonNull
+    static synchronized TextPaint obtainTextPaint(@Nullable Typeface typeface, float textSize,
+                                                  @ColorInt int color, @Nullable ColorFilter colorFilter) {
+        // Alpha is applied by the badge, keep one paint per opaque color.
+        color |= 0xFF000000;
+        final Key lookupKey = sLookupKey;
+        lookupKey.set(typeface, textSize, color, colorFilter);
+        TextPaint paint = sTextPaints.get(lookupKey);
+        if (paint == null) {
+            paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTextAlign(Paint.Align.CENTER);
+            paint.setTypeface(typeface);
+            paint.setTextSize(textSize);
+            paint.setColor(color);
+            paint.setColorFilter(colorFilter);
+            Key key = new Key();
+            key.set(typeface, textSize, color, colorFilter);
+            sTextPaints.put(key, paint);
+        }
+        return paint;
+    }
+
+    static void clear() {
+        sTextPaints.evictAll();
+    }
+
+    private static final class Key {
+        @Nullable Typeface mTypeface;
+        float mTextSize;
+        int mColor;
+        @Nullable ColorFilter mColorFilter;
+
+        void set(@Nullable Typeface typeface, float textSize, int color, @Nullable ColorFilter colorFilter) {
+            mTypeface = typeface;
+            mTextSize = textSize;
+            mColor = color;
+            mColorFilter = colorFilter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            // Typefaces and filters are compared by identity, same as the text width cache.
+            return mTypeface == other.mTypeface
+                    && mTextSize == other.mTextSize
+                    && mColor == other.mColor
+                    && mColorFilter == other.mColorFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = Float.floatToIntBits(mTextSize);
+            h = 31 * h + mColor;
+            h = 31 * h + System.identityHashCode(mTypeface);
+            h = 31 * h + System.identityHashCode(mColorFilter);
+            return h;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Display list of a drawn badge, replayed until the badge changes.
+ * A {@link RenderNode} is used on API 29, a {@link Picture} before.
+ * Recordings are made in badge coordinates and placed at the recorded bounds on replay.
+ **/
+abstract class BadgeRecording {
+
+    final Rect mBounds = new Rect();
+    private boolean mValid;
+
+    @NonNull
+    static BadgeRecording create() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return new RenderNodeRecording();
+        }
+        return new PictureRecording();
+    }
+
+    /**
+     * @return true if the recording matches the badge and can be replayed
+     */
+    boolean isValid() {
+        return mValid;
+    }
+
+    /**
+     * Drop the recording, the next draw records again.
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    /**
+     * @return true if the recording can be drawn on the canvas
+     */
+    abstract boolean canDraw(@NonNull Canvas canvas);
+
+    /**
+     * Start recording a badge covering the bounds, draw it in drawable coordinates.
+     */
+    @NonNull
+    final Canvas beginRecording(@NonNull Rect bounds) {
+        mBounds.set(bounds);
+        Canvas canvas = onBeginRecording(Math.max(1, bounds.width()), Math.max(1, bounds.height()));
+        canvas.translate(-bounds.left, -bounds.top);
+        return canvas;
+    }
+
+    final void endRecording() {
+        onEndRecording();
+        mValid = true;
+    }
+
+    abstract void draw(@NonNull Canvas canvas);
+
+    /**
+     * Free the recorded display list.
+     */
+    void release() {
+        mValid = false;
+    }
+
+    @NonNull
+    abstract Canvas onBeginRecording(int width, int height);
+
+    abstract void onEndRecording();
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class RenderNodeRecording extends BadgeRecording {
+        private final RenderNode mRenderNode = new RenderNode("BadgeDrawable");
+
+        @Override
+        boolean canDraw(@NonNull Canvas canvas) {
+            return canvas.isHardwareAccelerated();
+        }
+
+        @NonNull
+        @Override
+        Canvas onBeginRecording(int width, int height) {
+            mRenderNode.setPosition(mBounds.left, mBounds.top,
+                    mBounds.left + width, mBounds.top + height);
+            return mRenderNode.beginRecording(width, height);
+        }
+
+        @Override
+        void onEndRecording() {
+            mRenderNode.endRecording();
+        }
+
+        @Override
+        void draw(@NonNull Canvas canvas) {
+            canvas.drawRenderNode(mRenderNode);
+        }
+
+        @Override
+        void release() {
+            super.release();
+            mRenderNode.discardDisplayList();
+        }
+    }
+
+    private static final class PictureRecording extends BadgeRecording {
+        private final Picture mPicture = new Picture();
+
+        @Override
+        boolean canDraw(@NonNull Canvas canvas) {
+            // Hardware canvases only draw pictures since API 23.
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M || !canvas.isHardwareAccelerated();
+        }
+
+        @NonNull
+        @Override
+        Canvas onBeginRecording(int width, int height) {
+            return mPicture.beginRecording(width, height);
+        }
+
+        @Override
+        void onEndRecording() {
+            mPicture.endRecording();
+        }
+
+        @Override
+        void draw(@NonNull Canvas canvas) {
+            int saveCount = canvas.save();
+            canvas.translate(mBounds.left, mBounds.top);
+            canvas.drawPicture(mPicture);
+            canvas.restoreToCount(saveCount);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders badges without a view, for notification icons and launcher shortcuts.
+ * The badge is placed with its gravity and offsets relative to the icon bounds.
+ * <pre>
+ * BadgeRenderer renderer = new BadgeRenderer();
+ * Bitmap icon = renderer.render(appIcon, size, size, badge);
+ * ...
+ * renderer.recycle(icon);
+ * </pre>
+ * Output bitmaps come from a pool, recycle them once they are no longer shown.
+ * A renderer is not thread safe, and a badge rendered by it should not also be attached to a view.
+ **/
+public class BadgeRenderer {
+
+    private static final int DEFAULT_MAX_POOL_BYTES = 4 * 1024 * 1024;
+
+    private final ArrayList<Bitmap> mPool = new ArrayList<>();
+    private final int mMaxPoolBytes;
+    private int mPoolBytes;
+    private final Canvas mCanvas = new Canvas();
+    private final Rect mAnchorBounds = new Rect();
+    private final Rect mIconBounds = new Rect();
+
+    public BadgeRenderer() {
+        this(DEFAULT_MAX_POOL_BYTES);
+    }
+
+    /**
+     * @param maxPoolBytes max bytes of idle bitmaps kept for reuse
+     */
+    public BadgeRenderer(int maxPoolBytes) {
+        mMaxPoolBytes = maxPoolBytes;
+    }
+
+    /**
+     * Draw the icon and its badge into a pooled bitmap.
+     * @param icon icon drawn below the badge, null for a badge on a transparent bitmap.
+     *             Its bounds are restored after drawing, the icon may be shown elsewhere
+     * @param width bitmap width
+     * @param height bitmap height
+     */
+    @NonNull
+    public Bitmap render(@Nullable Drawable icon, int width, int height, @NonNull BadgeDrawable badge) {
+        Bitmap bitmap = obtainBitmap(width, height);
+        final Canvas canvas = mCanvas;
+        canvas.setBitmap(bitmap);
+        if (icon != null) {
+            final Rect iconBounds = mIconBounds;
+            iconBounds.set(icon.getBounds());
+            icon.setBounds(0, 0, width, height);
+            icon.draw(canvas);
+            icon.setBounds(iconBounds);
+        }
+        mAnchorBounds.set(0, 0, width, height);
+        render(canvas, mAnchorBounds, badge);
+        canvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Draw a badge on an existing mutable bitmap, the whole bitmap is the anchor.
+     */
+    public void renderOnto(@NonNull Bitmap bitmap, @NonNull BadgeDrawable badge) {
+        final Canvas canvas = mCanvas;
+        canvas.setBitmap(bitmap);
+        mAnchorBounds.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
+        render(canvas, mAnchorBounds, badge);
+        canvas.setBitmap(null);
+    }
+
+    /**
+     * Draw a badge on a canvas.
+     * @param anchorBounds bounds the badge is placed against, in canvas coordinates
+     */
+    public void render(@NonNull Canvas canvas, @NonNull Rect anchorBounds, @NonNull BadgeDrawable badge) {
+        badge.setAnchorBounds(anchorBounds);
+        badge.draw(canvas);
+    }
+
+    /**
+     * Render many icons in one call, icons and badges are matched by index.
+     * @param icons icons, the list may contain nulls
+     * @param out receives the rendered bitmaps in the same order
+     */
+    public void renderAll(@NonNull List<? extends Drawable> icons, @NonNull List<BadgeDrawable> badges,
+                          int width, int height, @NonNull List<Bitmap> out) {
+        if (icons.size() != badges.size()) {
+            throw new IllegalArgumentException("Got " + icons.size() + " icons for " + badges.size() + " badges");
+        }
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            out.add(render(icons.get(i), width, height, badges.get(i)));
+        }
+    }
+
+    /**
+     * Return a bitmap from {@link #render(Drawable, int, int, BadgeDrawable)} to the pool.
+     */
+    public void recycle(@NonNull Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable() || isPooled(bitmap)) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (mPoolBytes + bytes > mMaxPoolBytes) {
+            bitmap.recycle();
+            return;
+        }
+        mPool.add(bitmap);
+        mPoolBytes += bytes;
+    }
+
+    /**
+     * Free all pooled bitmaps.
+     */
+    public void clearPool() {
+        for (int i = 0, size = mPool.size(); i < size; i++) {
+            mPool.get(i).recycle();
+        }
+        mPool.clear();
+        mPoolBytes = 0;
+    }
+
+    /**
+     * Recycling a bitmap twice must not pool it twice, it would be handed out to two renders.
+     */
+    private boolean isPooled(@NonNull Bitmap bitmap) {
+        final ArrayList<Bitmap> pool = mPool;
+        for (int i = 0, size = pool.size(); i < size; i++) {
+            if (pool.get(i) == bitmap) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NonNull
+    private Bitmap obtainBitmap(int width, int height) {
+        final ArrayList<Bitmap> pool = mPool;
+        for (int i = pool.size() - 1; i >= 0; i--) {
+            Bitmap bitmap = pool.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                pool.remove(i);
+                mPoolBytes -= bitmap.getAllocationByteCount();
+                bitmap.eraseColor(Color.TRANSPARENT);
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -0,0 +1,45 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Draws the badge background straight to the canvas.
+ * Geometry is resolved in {@link #update(RectF, int, float)}, drawing only issues
+ * one canvas call, unlike a GradientDrawable which re-validates its paint and path state.
+ **/
+final class BadgeShapeRenderer {
+
+    private final RectF mShapeBounds = new RectF();
+    @BadgeDrawable.ShapeStyle private int mShapeStyle = BadgeDrawable.STYLE_DOT;
+    private float mCornerRadius;
+
+    /**
+     * Update shape geometry, call when bounds, shape style or radius changed.
+     * @param bounds badge bounds
+     * @param shapeStyle background shape style
+     * @param cornerRadius resolved corner radius of {@link BadgeDrawable#STYLE_RECTANGLE}
+     */
+    void update(@NonNull RectF bounds, @BadgeDrawable.ShapeStyle int shapeStyle, float cornerRadius) {
+        mShapeBounds.set(bounds);
+        mShapeStyle = shapeStyle;
+        mCornerRadius = cornerRadius;
+    }
+
+    void draw(@NonNull Canvas canvas, @NonNull Paint paint) {
+        final RectF bounds = mShapeBounds;
+        if (bounds.isEmpty()) {
+            return;
+        }
+        if (mShapeStyle == BadgeDrawable.STYLE_DOT) {
+            canvas.drawOval(bounds, paint);
+        } else if (mCornerRadius > 0f) {
+            canvas.drawRoundRect(bounds, mCornerRadius, mCornerRadius, paint);
+        } else {
+            canvas.drawRect(bounds, paint);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.PorterDuff;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+
+import androidx.annotation.AttrRes;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.annotation.XmlRes;
+
+import com.edgar.widget.badge.layout.BadgeLabels;
+import com.edgar.widget.badge.layout.CompactNumberFormatter;
+
+import java.util.Locale;
+import java.util.WeakHashMap;
+
+/**
+ * Resolved badge attributes, shared by badges created from the same style.
+ * A shared state is never written, {@link BadgeDrawable} copies it before the first change.
+ **/
+final class BadgeState extends Drawable.ConstantState {
+
+    /**
+     * Resolved style states, keyed by theme and style resource.
+     */
+    private static final WeakHashMap<Resources.Theme, SparseArray<BadgeState>> sStyleCache =
+            new WeakHashMap<>();
+
+    static final PorterDuff.Mode DEFAULT_TINT_MODE = PorterDuff.Mode.SRC_IN;
+
+    /**
+     * Resolved xml badge resources, keyed by theme and xml resource.
+     */
+    private static final WeakHashMap<Resources.Theme, SparseArray<BadgeState>> sResourceCache =
+            new WeakHashMap<>();
+
+    @ColorInt int mBackgroundColor = BadgeDrawable.DEFAULT_BADGE_BACKGROUND_COLOR;
+    @ColorInt int mTextColor = BadgeDrawable.DEFAULT_BADGE_TEXT_COLOR;
+    /**
+     * Stateful colors, null when the color does not depend on the drawable state.
+     */
+    @Nullable ColorStateList mBackgroundColorList;
+    @Nullable ColorStateList mTextColorList;
+    @Nullable ColorStateList mTint;
+    @NonNull PorterDuff.Mode mTintMode = DEFAULT_TINT_MODE;
+    float mTextSize;
+    @Nullable Typeface mTypeface = Typeface.DEFAULT_BOLD;
+    int mAlpha = 255;
+    float mBadgeRadii;
+    int mBadgeSize;
+    int mBadgeWidth;
+    int mBadgeHeight;
+    boolean mSizeAdjustRadius;
+    int mNumber = 0;
+    /**
+     * Text shown instead of the number, null in number mode.
+     */
+    @Nullable String mText;
+    int mMaxNumber = BadgeDrawable.DEFAULT_MAX_BADGE_NUMBER;
+    @BadgeDrawable.ShapeStyle int mShapeStyle = BadgeDrawable.STYLE_DOT;
+    int mHorizontalPadding;
+    int mHorizontalOffset;
+    int mVerticalOffset;
+    int mGravity = BadgeDrawable.TOP_END;
+    @BadgeDrawable.NumberFormat int mNumberFormat = BadgeDrawable.NUMBER_FORMAT_PLAIN;
+    @NonNull Locale mLocale;
+
+    @StyleRes int mStyleRes;
+    int mChangingConfigurations;
+    @Nullable private Configuration mConfiguration;
+
+    private BadgeState(@NonNull Resources resources) {
+        BadgeDefaults defaults = BadgeDefaults.get(resources);
+        mBadgeRadii = defaults.mBadgeRadius;
+        mHorizontalPadding = defaults.mHorizontalPadding;
+        mBadgeSize = defaults.mBadgeSize;
+        mTextSize = defaults.mTextSize;
+        Configuration configuration = resources.getConfiguration();
+        mConfiguration = new Configuration(configuration);
+        mLocale = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                ? configuration.getLocales().get(0) : configuration.locale;
+    }
+
+    BadgeState(@NonNull BadgeState orig) {
+        mBackgroundColor = orig.mBackgroundColor;
+        mTextColor = orig.mTextColor;
+        mBackgroundColorList = orig.mBackgroundColorList;
+        mTextColorList = orig.mTextColorList;
+        mTint = orig.mTint;
+        mTintMode = orig.mTintMode;
+        mTextSize = orig.mTextSize;
+        mTypeface = orig.mTypeface;
+        mAlpha = orig.mAlpha;
+        mBadgeRadii = orig.mBadgeRadii;
+        mBadgeSize = orig.mBadgeSize;
+        mBadgeWidth = orig.mBadgeWidth;
+        mBadgeHeight = orig.mBadgeHeight;
+        mSizeAdjustRadius = orig.mSizeAdjustRadius;
+        mNumber = orig.mNumber;
+        mText = orig.mText;
+        mMaxNumber = orig.mMaxNumber;
+        mShapeStyle = orig.mShapeStyle;
+        mHorizontalPadding = orig.mHorizontalPadding;
+        mHorizontalOffset = orig.mHorizontalOffset;
+        mVerticalOffset = orig.mVerticalOffset;
+        mGravity = orig.mGravity;
+        mNumberFormat = orig.mNumberFormat;
+        mLocale = orig.mLocale;
+        mStyleRes = orig.mStyleRes;
+        mChangingConfigurations = orig.mChangingConfigurations;
+        mConfiguration = orig.mConfiguration;
+    }
+
+    /**
+     * Get the resolved state of a badge style, styled attributes are only read
+     * the first time a style is used with a theme and configuration.
+     */
+    @NonNull
+    static BadgeState obtain(@NonNull Context context, @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        synchronized (sStyleCache) {
+            SparseArray<BadgeState> states = sStyleCache.get(theme);
+            BadgeState state = states == null ? null : states.get(defStyleRes);
+            if (state != null && state.isValidFor(configuration)) {
+                return state;
+            }
+        }
+        BadgeState state = resolve(context, /* attrs= */ null, defStyleAttr, defStyleRes);
+        synchronized (sStyleCache) {
+            SparseArray<BadgeState> states = sStyleCache.get(theme);
+            if (states == null) {
+                states = new SparseArray<>();
+                sStyleCache.put(theme, states);
+            }
+            states.put(defStyleRes, state);
+        }
+        return state;
+    }
+
+    /**
+     * Get the resolved state of a xml badge resource, the xml is only parsed the first time
+     * a resource is used with a theme and configuration.
+     */
+    @NonNull
+    static BadgeState obtainFromResource(
+            @NonNull Context context,
+            @XmlRes int id,
+            @AttrRes int defStyleAttr,
+            @StyleRes int defaultStyleRes) {
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        synchronized (sResourceCache) {
+            SparseArray<BadgeState> states = sResourceCache.get(theme);
+            BadgeState state = states == null ? null : states.get(id);
+            if (state != null && state.isValidFor(configuration)) {
+                return state;
+            }
+        }
+        AttributeSet attrs = BadgeUtils.parseDrawableXml(context, id, "badge");
+        @StyleRes int style = attrs.getStyleAttribute();
+        if (style == 0) {
+            style = defaultStyleRes;
+        }
+        BadgeState state = resolve(context, attrs, defStyleAttr, style);
+        synchronized (sResourceCache) {
+            SparseArray<BadgeState> states = sResourceCache.get(theme);
+            if (states == null) {
+                states = new SparseArray<>();
+                sResourceCache.put(theme, states);
+            }
+            states.put(id, state);
+        }
+        return state;
+    }
+
+    static void clearCache() {
+        synchronized (sStyleCache) {
+            sStyleCache.clear();
+        }
+        synchronized (sResourceCache) {
+            sResourceCache.clear();
+        }
+        BadgeDefaults.clear();
+        BadgePaints.clear();
+    }
+
+    /**
+     * Read badge attributes into a new state.
+     */
+    @NonNull
+    static BadgeState resolve(
+            @NonNull Context context,
+            @Nullable AttributeSet attrs,
+            @AttrRes int defStyleAttr,
+            @StyleRes int defStyleRes) {
+        BadgeState state = new BadgeState(context.getResources());
+        state.mStyleRes = defStyleRes;
+        TypedArray ta = context.obtainStyledAttributes(attrs,R.styleable.BadgeDrawable,
+                defStyleAttr,defStyleRes);
+        ColorStateList backgroundColors = ta.getColorStateList(R.styleable.BadgeDrawable_badge_backgroundColor);
+        if (backgroundColors != null) {
+            state.mBackgroundColor = backgroundColors.getDefaultColor();
+            state.mBackgroundColorList = backgroundColors.isStateful() ? backgroundColors : null;
+        }
+
+        state.mBadgeRadii = ta.getDimension(R.styleable.BadgeDrawable_badge_radii,state.mBadgeRadii);
+        state.mBadgeSize = ta.getDimensionPixelSize(R.styleable.BadgeDrawable_badge_size,state.mBadgeSize);
+        state.mBadgeWidth = ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_width,-1);
+        state.mBadgeHeight = ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_height,-1);
+
+        state.mSizeAdjustRadius = ta.getBoolean(R.styleable.BadgeDrawable_sizeAdjustRadii,false);
+        state.mGravity = ta.getInt(R.styleable.BadgeDrawable_badge_gravity,BadgeDrawable.TOP_END);
+
+        state.mTextSize = ta.getDimension(R.styleable.BadgeDrawable_badge_textSize,state.mTextSize);
+        ColorStateList textColors = ta.getColorStateList(R.styleable.BadgeDrawable_badge_textColor);
+        if (textColors != null) {
+            state.mTextColor = textColors.getDefaultColor();
+            state.mTextColorList = textColors.isStateful() ? textColors : null;
+        }
+
+        state.mHorizontalOffset = ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_horizontalOffset,0);
+        state.mVerticalOffset = ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_verticalOffset,0);
+        state.mHorizontalPadding = ta.getDimensionPixelOffset(R.styleable.BadgeDrawable_badge_horizontalPadding,state.mHorizontalPadding);
+
+        state.mNumber = Math.max(0, ta.getInt(R.styleable.BadgeDrawable_badge_number,0));
+        state.mMaxNumber = Math.max(0, ta.getInt(R.styleable.BadgeDrawable_badge_maxNumber,BadgeDrawable.DEFAULT_MAX_BADGE_NUMBER));
+        state.mText = ta.getString(R.styleable.BadgeDrawable_badge_text);
+
+        state.mShapeStyle = ta.getInt(R.styleable.BadgeDrawable_badge_shape,state.mShapeStyle);
+        state.mNumberFormat = ta.getInt(R.styleable.BadgeDrawable_badge_numberFormat,state.mNumberFormat);
+        state.mAlpha = ta.getInt(R.styleable.BadgeDrawable_badge_alpha,state.mAlpha);
+        state.mChangingConfigurations = ta.getChangingConfigurations();
+        ta.recycle();
+        return state;
+    }
+
+    /**
+     * @return size of the buffer {@link #writeLabel(char[])} needs
+     */
+    int getLabelCapacity() {
+        return mText != null ? Math.max(mText.length(), BadgeLabels.MAX_LABEL_LENGTH) : BadgeLabels.MAX_LABEL_LENGTH;
+    }
+
+    /**
+     * Write the text or formatted number shown by the badge.
+     * @param out buffer of at least {@link #getLabelCapacity()} chars
+     * @return label length
+     */
+    int writeLabel(@NonNull char[] out) {
+        if (mText != null) {
+            mText.getChars(0, mText.length(), out, 0);
+            return mText.length();
+        }
+        CompactNumberFormatter compactFormatter = mNumberFormat == BadgeDrawable.NUMBER_FORMAT_COMPACT
+                ? CompactNumberFormatter.getInstance(mLocale) : null;
+        return BadgeLabels.formatNumber(mNumber, mMaxNumber, compactFormatter, out);
+    }
+
+    /**
+     * @return true if the state was resolved with the same configuration
+     */
+    boolean isValidFor(@NonNull Configuration configuration) {
+        return mConfiguration != null && mConfiguration.diff(configuration) == 0;
+    }
+
+    /**
+     * @return true if both states were resolved with the same configuration, or either one
+     * has no configuration
+     */
+    boolean hasConfigurationOf(@NonNull BadgeState other) {
+        return mConfiguration == null || other.mConfiguration == null || isValidFor(other.mConfiguration);
+    }
+
+    @NonNull
+    @Override
+    public Drawable newDrawable() {
+        return new BadgeDrawable(this);
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return mChangingConfigurations;
+    }
+}
@@ -0,0 +1,224 @@
+package com.edgar.widget.badge;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.util.SparseArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Saved numbers, texts, colors, offsets and shapes of many badges, keyed by anchor view id.
+ * Values are stored column wise in primitive arrays, one slot per badge.
+ * <pre>
+ * // onSaveInstanceState
+ * outState.putParcelable(KEY_BADGES, BadgeStateSnapshot.capture(badges));
+ * // onCreate
+ * BadgeStateSnapshot snapshot = savedInstanceState.getParcelable(KEY_BADGES);
+ * snapshot.restore(badges);
+ * </pre>
+ * Badges are restored with one {@link BadgeDrawable#edit()} each, so every badge is laid out
+ * and invalidated once. Stateful colors are not saved, those badges keep their style colors.
+ **/
+public final class BadgeStateSnapshot implements Parcelable {
+
+    private static final int FLAG_STATEFUL_BACKGROUND = 1;
+    private static final int FLAG_STATEFUL_TEXT = 1 << 1;
+
+    private final int[] mAnchorIds;
+    private final int[] mNumbers;
+    private final int[] mMaxNumbers;
+    private final int[] mNumberFormats;
+    private final int[] mBackgroundColors;
+    private final int[] mTextColors;
+    private final int[] mAlphas;
+    private final int[] mShapeStyles;
+    private final int[] mGravities;
+    private final int[] mHorizontalOffsets;
+    private final int[] mVerticalOffsets;
+    private final int[] mFlags;
+    /**
+     * Badge texts, null entries for badges showing a number.
+     */
+    private final String[] mTexts;
+
+    private BadgeStateSnapshot(int size) {
+        mAnchorIds = new int[size];
+        mNumbers = new int[size];
+        mMaxNumbers = new int[size];
+        mNumberFormats = new int[size];
+        mBackgroundColors = new int[size];
+        mTextColors = new int[size];
+        mAlphas = new int[size];
+        mShapeStyles = new int[size];
+        mGravities = new int[size];
+        mHorizontalOffsets = new int[size];
+        mVerticalOffsets = new int[size];
+        mFlags = new int[size];
+        mTexts = new String[size];
+    }
+
+    private BadgeStateSnapshot(@NonNull Parcel in) {
+        mAnchorIds = in.createIntArray();
+        mNumbers = in.createIntArray();
+        mMaxNumbers = in.createIntArray();
+        mNumberFormats = in.createIntArray();
+        mBackgroundColors = in.createIntArray();
+        mTextColors = in.createIntArray();
+        mAlphas = in.createIntArray();
+        mShapeStyles = in.createIntArray();
+        mGravities = in.createIntArray();
+        mHorizontalOffsets = in.createIntArray();
+        mVerticalOffsets = in.createIntArray();
+        mFlags = in.createIntArray();
+        mTexts = in.createStringArray();
+    }
+
+    /**
+     * Save badges keyed by the id of their anchor view.
+     */
+    @NonNull
+    @MainThread
+    public static BadgeStateSnapshot capture(@NonNull SparseArray<BadgeDrawable> badges) {
+        final int size = badges.size();
+        BadgeStateSnapshot snapshot = new BadgeStateSnapshot(size);
+        for (int i = 0; i < size; i++) {
+            BadgeState state = badges.valueAt(i).getBadgeState();
+            snapshot.mAnchorIds[i] = badges.keyAt(i);
+            snapshot.mNumbers[i] = state.mNumber;
+            snapshot.mMaxNumbers[i] = state.mMaxNumber;
+            snapshot.mNumberFormats[i] = state.mNumberFormat;
+            snapshot.mBackgroundColors[i] = state.mBackgroundColor;
+            snapshot.mTextColors[i] = state.mTextColor;
+            snapshot.mAlphas[i] = state.mAlpha;
+            snapshot.mShapeStyles[i] = state.mShapeStyle;
+            snapshot.mGravities[i] = state.mGravity;
+            snapshot.mHorizontalOffsets[i] = state.mHorizontalOffset;
+            snapshot.mVerticalOffsets[i] = state.mVerticalOffset;
+            snapshot.mTexts[i] = state.mText;
+            int flags = 0;
+            if (state.mBackgroundColorList != null) {
+                flags |= FLAG_STATEFUL_BACKGROUND;
+            }
+            if (state.mTextColorList != null) {
+                flags |= FLAG_STATEFUL_TEXT;
+            }
+            snapshot.mFlags[i] = flags;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Apply saved values to badges keyed by the id of their anchor view.
+     * Saved badges without a matching badge are skipped.
+     */
+    @MainThread
+    public void restore(@NonNull SparseArray<BadgeDrawable> badges) {
+        for (int i = 0, size = mAnchorIds.length; i < size; i++) {
+            BadgeDrawable badge = badges.get(mAnchorIds[i]);
+            if (badge != null) {
+                restoreAt(i, badge);
+            }
+        }
+    }
+
+    /**
+     * Apply the saved values of one anchor to a badge.
+     * @return false if nothing was saved for the anchor id
+     */
+    @MainThread
+    public boolean restore(int anchorId, @NonNull BadgeDrawable badge) {
+        int index = indexOf(anchorId);
+        if (index < 0) {
+            return false;
+        }
+        restoreAt(index, badge);
+        return true;
+    }
+
+    public int size() {
+        return mAnchorIds.length;
+    }
+
+    public int getAnchorId(int index) {
+        return mAnchorIds[index];
+    }
+
+    /**
+     * @return saved number of the anchor, 0 if nothing was saved for it
+     */
+    public int getNumber(int anchorId) {
+        int index = indexOf(anchorId);
+        return index < 0 ? 0 : mNumbers[index];
+    }
+
+    @Nullable
+    public String getText(int anchorId) {
+        int index = indexOf(anchorId);
+        return index < 0 ? null : mTexts[index];
+    }
+
+    private void restoreAt(int index, @NonNull BadgeDrawable badge) {
+        BadgeDrawable.Editor editor = badge.edit()
+                .maxNumber(mMaxNumbers[index])
+                .number(mNumbers[index])
+                .text(mTexts[index])
+                .numberFormat(mNumberFormats[index])
+                .alpha(mAlphas[index])
+                .shapeStyle(mShapeStyles[index])
+                .gravity(mGravities[index])
+                .horizontalOffset(mHorizontalOffsets[index])
+                .verticalOffset(mVerticalOffsets[index]);
+        final int flags = mFlags[index];
+        if ((flags & FLAG_STATEFUL_BACKGROUND) == 0) {
+            editor.backgroundColor(mBackgroundColors[index]);
+        }
+        if ((flags & FLAG_STATEFUL_TEXT) == 0) {
+            editor.textColor(mTextColors[index]);
+        }
+        editor.apply();
+    }
+
+    private int indexOf(int anchorId) {
+        // Captured from a SparseArray, so ids are sorted.
+        int index = Arrays.binarySearch(mAnchorIds, anchorId);
+        return index < 0 ? -1 : index;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel dest, int flags) {
+        dest.writeIntArray(mAnchorIds);
+        dest.writeIntArray(mNumbers);
+        dest.writeIntArray(mMaxNumbers);
+        dest.writeIntArray(mNumberFormats);
+        dest.writeIntArray(mBackgroundColors);
+        dest.writeIntArray(mTextColors);
+        dest.writeIntArray(mAlphas);
+        dest.writeIntArray(mShapeStyles);
+        dest.writeIntArray(mGravities);
+        dest.writeIntArray(mHorizontalOffsets);
+        dest.writeIntArray(mVerticalOffsets);
+        dest.writeIntArray(mFlags);
+        dest.writeStringArray(mTexts);
+    }
+
+    public static final Creator<BadgeStateSnapshot> CREATOR = new Creator<BadgeStateSnapshot>() {
+        @Override
+        public BadgeStateSnapshot createFromParcel(Parcel in) {
+            return new BadgeStateSnapshot(in);
+        }
+
+        @Override
+        public BadgeStateSnapshot[] newArray(int size) {
+            return new BadgeStateSnapshot[size];
+        }
+    };
+}
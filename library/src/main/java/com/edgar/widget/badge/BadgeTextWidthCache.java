@@ -0,0 +1,146 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.edgar.widget.badge.layout.BadgeLabels;
+
+/**
+ * Label widths shared by all badges, keyed by label, text size and typeface.
+ * Badges showing the same label with the same text configuration measure it once.
+ * The cache is a fixed size direct mapped table, a colliding label replaces the old entry.
+ * Other paint settings such as letter spacing are not part of the key, badges never change them.
+ **/
+public final class BadgeTextWidthCache {
+
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final BadgeTextWidthCache sInstance = new BadgeTextWidthCache(DEFAULT_CAPACITY);
+
+    private final int mMask;
+    private final char[][] mLabels;
+    private final int[] mLabelLengths;
+    private final float[] mTextSizes;
+    private final Typeface[] mTypefaces;
+    private final float[] mWidths;
+    private final boolean[] mOccupied;
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    /**
+     * @param capacity number of entries, rounded up to a power of two
+     */
+    BadgeTextWidthCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity));
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mMask = size - 1;
+        mLabels = new char[size][];
+        mLabelLengths = new int[size];
+        mTextSizes = new float[size];
+        mTypefaces = new Typeface[size];
+        mWidths = new float[size];
+        mOccupied = new boolean[size];
+    }
+
+    @NonNull
+    public static BadgeTextWidthCache getInstance() {
+        return sInstance;
+    }
+
+    /**
+     * Get the width of a label measured with the paint, measuring it on a miss.
+     */
+    public float measureText(@NonNull Paint paint, @NonNull char[] text, int start, int count) {
+        if (count == 0) {
+            return 0f;
+        }
+        final float textSize = paint.getTextSize();
+        final Typeface typeface = paint.getTypeface();
+        final int index = hash(text, start, count, textSize, typeface) & mMask;
+        synchronized (this) {
+            if (mOccupied[index] && matches(index, text, start, count, textSize, typeface)) {
+                mHitCount++;
+                return mWidths[index];
+            }
+            mMissCount++;
+        }
+        float width = paint.measureText(text, start, count);
+        synchronized (this) {
+            if (mOccupied[index]) {
+                mEvictionCount++;
+            }
+            char[] label = mLabels[index];
+            if (label == null || label.length < count) {
+                label = new char[Math.max(count, BadgeLabels.MAX_LABEL_LENGTH)];
+                mLabels[index] = label;
+            }
+            System.arraycopy(text, start, label, 0, count);
+            mLabelLengths[index] = count;
+            mTextSizes[index] = textSize;
+            mTypefaces[index] = typeface;
+            mWidths[index] = width;
+            mOccupied[index] = true;
+        }
+        return width;
+    }
+
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return number of entries replaced by a colliding label
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    public synchronized void resetStatistics() {
+        mHitCount = 0;
+        mMissCount = 0;
+        mEvictionCount = 0;
+    }
+
+    /**
+     * Drop all widths, call after fonts were changed.
+     */
+    public synchronized void clear() {
+        for (int i = 0; i <= mMask; i++) {
+            mOccupied[i] = false;
+            mTypefaces[i] = null;
+        }
+    }
+
+    private boolean matches(int index, @NonNull char[] text, int start, int count,
+                            float textSize, @Nullable Typeface typeface) {
+        if (mLabelLengths[index] != count || mTextSizes[index] != textSize || mTypefaces[index] != typeface) {
+            return false;
+        }
+        final char[] label = mLabels[index];
+        for (int i = 0; i < count; i++) {
+            if (label[i] != text[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(@NonNull char[] text, int start, int count,
+                            float textSize, @Nullable Typeface typeface) {
+        int h = Float.floatToIntBits(textSize);
+        h = 31 * h + System.identityHashCode(typeface);
+        for (int i = start, end = start + count; i < end; i++) {
+            h = 31 * h + text[i];
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -4,9 +4,10 @@ import android.content.Context;
 import android.content.res.Resources;
 import android.text.TextUtils;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 import android.util.Xml;
 import android.view.View;
-import android.view.ViewOverlay;
+import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.XmlRes;
@@ -21,23 +22,74 @@ import java.io.IOException;
  */
 public class BadgeUtils {
 
+    /**
+     * Attach a badge to the anchor overlay. An anchor can carry several badges,
+     * they share one layout listener which is removed with the last badge.
+     */
     public static void attachBadgeDrawable(
             @NonNull final BadgeDrawable badgeDrawable,
             @NonNull final View anchor) {
         if (badgeDrawable.getCallback() == null) {
-            anchor.getOverlay().add(badgeDrawable);
-            anchor.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
-                @Override
-                public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
-                    badgeDrawable.updateBadgeCoordinates(anchor);
-                }
-            });
+            BadgeAttachment.obtain(anchor).add(badgeDrawable);
         }
     }
 
     public static void detachBadgeDrawable(@NonNull final BadgeDrawable badgeDrawable, @NonNull final View anchor) {
-        ViewOverlay overlay = anchor.getOverlay();
-        overlay.remove(badgeDrawable);
+        BadgeAttachment attachment = BadgeAttachment.get(anchor);
+        if (attachment == null || !attachment.remove(badgeDrawable)) {
+            anchor.getOverlay().remove(badgeDrawable);
+        }
+    }
+
+    /**
+     * Keep the badges of an anchor in place while the anchor scrolls its content.
+     * Scrolling only moves the badges, they are laid out again when the anchor size changes.
+     * Translation of the anchor and scrolling of its parents need no tracking, the badges
+     * are drawn in the anchor overlay and move with it.
+     * Attach a badge first, tracking ends when the last badge is detached.
+     */
+    public static void setAnchorTrackingEnabled(@NonNull View anchor, boolean enabled) {
+        BadgeAttachment attachment = BadgeAttachment.get(anchor);
+        if (attachment != null) {
+            attachment.setTracking(enabled);
+        }
+    }
+
+    /**
+     * Detach all badges of the anchor view.
+     */
+    public static void detachBadgeDrawables(@NonNull View anchor) {
+        BadgeAttachment attachment = BadgeAttachment.get(anchor);
+        if (attachment != null) {
+            attachment.removeAll(/* outRemoved= */ null);
+        }
+    }
+
+    /**
+     * Attach badges to the views of a hierarchy.
+     * @param badges badges keyed by the id of their anchor view
+     * @param root root of the view hierarchy containing the anchors
+     */
+    public static void attachBadgeDrawables(@NonNull SparseArray<BadgeDrawable> badges, @NonNull View root) {
+        for (int i = 0, size = badges.size(); i < size; i++) {
+            View anchor = root.findViewById(badges.keyAt(i));
+            if (anchor != null) {
+                attachBadgeDrawable(badges.valueAt(i), anchor);
+            }
+        }
+    }
+
+    /**
+     * Detach all badges from a view and its descendants.
+     */
+    public static void detachAllBadgeDrawables(@NonNull View root) {
+        detachBadgeDrawables(root);
+        if (root instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) root;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                detachAllBadgeDrawables(group.getChildAt(i));
+            }
+        }
     }
 
     @NonNull
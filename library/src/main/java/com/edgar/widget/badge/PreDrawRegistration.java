@@ -0,0 +1,79 @@
+package com.edgar.widget.badge;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Keeps a pre draw listener on the tree observer of a view while the view is attached.
+ * The observer returned by {@link View#getViewTreeObserver()} changes when the view is detached
+ * and attached again, so the listener is always removed from the observer it was added to.
+ **/
+final class PreDrawRegistration implements View.OnAttachStateChangeListener {
+
+    private final View mView;
+    private final ViewTreeObserver.OnPreDrawListener mListener;
+    /**
+     * Observer the listener was added to, null while it is not added.
+     */
+    @Nullable private ViewTreeObserver mObserver;
+    private boolean mRegistered;
+
+    PreDrawRegistration(@NonNull View view, @NonNull ViewTreeObserver.OnPreDrawListener listener) {
+        mView = view;
+        mListener = listener;
+    }
+
+    void register() {
+        if (mRegistered) {
+            return;
+        }
+        mRegistered = true;
+        mView.addOnAttachStateChangeListener(this);
+        if (mView.isAttachedToWindow()) {
+            addListener();
+        }
+    }
+
+    void unregister() {
+        if (!mRegistered) {
+            return;
+        }
+        mRegistered = false;
+        mView.removeOnAttachStateChangeListener(this);
+        removeListener();
+    }
+
+    boolean isRegistered() {
+        return mRegistered;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) {
+        addListener();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        removeListener();
+    }
+
+    private void addListener() {
+        if (mObserver == null) {
+            mObserver = mView.getViewTreeObserver();
+            mObserver.addOnPreDrawListener(mListener);
+        }
+    }
+
+    private void removeListener() {
+        final ViewTreeObserver observer = mObserver;
+        if (observer != null) {
+            if (observer.isAlive()) {
+                observer.removeOnPreDrawListener(mListener);
+            }
+            mObserver = null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.Paint;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Badge style, label and text metrics resolved off the main thread.
+ * A prepared badge is immutable, it can be applied to any number of badges
+ * with {@link BadgeDrawable#apply(PreparedBadge)}.
+ * <pre>
+ * Future&lt;PreparedBadge&gt; future = PreparedBadge.submit(executor, context, R.style.BadgeTextLong, unread);
+ * // on the main thread
+ * badge.apply(future.get());
+ * </pre>
+ **/
+public final class PreparedBadge {
+
+    final BadgeState mState;
+    final char[] mLabel;
+    final int mLabelLength;
+    final float mLabelWidth;
+    final float mTextBaselineOffset;
+
+    private PreparedBadge(@NonNull BadgeState state) {
+        mState = state;
+        mLabel = new char[state.getLabelCapacity()];
+        mLabelLength = state.writeLabel(mLabel);
+        TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setTypeface(state.mTypeface);
+        textPaint.setTextSize(state.mTextSize);
+        // Measured through the shared cache, badges showing the same label also benefit.
+        final long start = BadgeMetrics.start();
+        mLabelWidth = mLabelLength == 0 ? 0f
+                : BadgeTextWidthCache.getInstance().measureText(textPaint, mLabel, 0, mLabelLength);
+        BadgeMetrics.record(/* badge= */ null, BadgeMetrics.EVENT_TEXT_MEASURE, start);
+        mTextBaselineOffset = BadgeDrawable.computeTextBaselineOffset(textPaint, new Paint.FontMetrics());
+    }
+
+    /**
+     * Resolve a badge style with a number.
+     */
+    @NonNull
+    @WorkerThread
+    public static PreparedBadge prepare(@NonNull Context context, @StyleRes int style, int number) {
+        return prepare(context, style, number, /* text= */ null);
+    }
+
+    /**
+     * Resolve a badge style with a text such as "NEW".
+     */
+    @NonNull
+    @WorkerThread
+    public static PreparedBadge prepare(@NonNull Context context, @StyleRes int style, @NonNull CharSequence text) {
+        return prepare(context, style, 0, text);
+    }
+
+    /**
+     * Prepare a badge on the executor.
+     */
+    @NonNull
+    public static Future<PreparedBadge> submit(@NonNull ExecutorService executor, @NonNull final Context context,
+                                               @StyleRes final int style, final int number) {
+        return executor.submit(new Callable<PreparedBadge>() {
+            @Override
+            public PreparedBadge call() {
+                return prepare(context, style, number);
+            }
+        });
+    }
+
+    /**
+     * Prepare badges of one style in parallel, one task per number.
+     * @return futures in the order of the numbers
+     */
+    @NonNull
+    public static List<Future<PreparedBadge>> submitAll(@NonNull ExecutorService executor, @NonNull Context context,
+                                                        @StyleRes int style, @NonNull int[] numbers) {
+        List<Future<PreparedBadge>> futures = new ArrayList<>(numbers.length);
+        for (int number : numbers) {
+            futures.add(submit(executor, context, style, number));
+        }
+        return futures;
+    }
+
+    @NonNull
+    private static PreparedBadge prepare(@NonNull Context context, @StyleRes int style,
+                                         int number, @Nullable CharSequence text) {
+        BadgeState styleState = BadgeState.obtain(context, BadgeDrawable.DEFAULT_THEME_ATTR, style);
+        // The style state is shared, the prepared badge owns a copy and never changes it.
+        BadgeState state = new BadgeState(styleState);
+        state.mNumber = Math.max(0, number);
+        state.mText = text == null ? null : text.toString();
+        return new PreparedBadge(state);
+    }
+
+    public int getNumber() {
+        return mState.mNumber;
+    }
+
+    @Nullable
+    public CharSequence getText() {
+        return mState.mText;
+    }
+}
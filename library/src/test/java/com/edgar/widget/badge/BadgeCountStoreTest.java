@@ -0,0 +1,176 @@
+package com.edgar.widget.badge;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Lock free count updates of {@link BadgeCountStore} and their publishing once per frame.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BadgeCountStoreTest {
+
+    private static final int THREAD_COUNT = 4;
+    private static final int ADDS_PER_THREAD = 1000;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    @Test
+    public void concurrentAddsArePublishedOnce() throws InterruptedException {
+        final BadgeCountStore store = new BadgeCountStore(16);
+        BadgeDrawable badge = BadgeDrawable.create(mContext);
+        badge.setMaxNumber(Integer.MAX_VALUE);
+        store.bind(1, badge);
+        CountingCallback callback = new CountingCallback();
+        badge.setCallback(callback);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                        store.addCount(1, 1);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(THREAD_COUNT * ADDS_PER_THREAD, store.getCount(1));
+        // Nothing reaches the badge before the frame.
+        assertEquals(0, badge.getNumber());
+        assertEquals(0, callback.mInvalidateCount);
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(THREAD_COUNT * ADDS_PER_THREAD, badge.getNumber());
+        assertEquals(1, callback.mInvalidateCount);
+    }
+
+    @Test
+    public void collidingIdsKeepTheirOwnCounts() {
+        BadgeCountStore store = new BadgeCountStore(4);
+        int first = 1;
+        int second = findCollidingId(first, 3);
+        store.setCount(first, 10);
+        store.setCount(second, 20);
+
+        assertEquals(10, store.getCount(first));
+        assertEquals(20, store.getCount(second));
+        assertEquals(0, store.getCount(findCollidingId(second, 3)));
+    }
+
+    @Test
+    public void fullTableRejectsNewIds() {
+        BadgeCountStore store = new BadgeCountStore(4);
+        for (int id = 0; id < 4; id++) {
+            store.setCount(id, id);
+        }
+        // Known ids are still updated in a full table.
+        store.addCount(3, 1);
+        assertEquals(4, store.getCount(3));
+        assertEquals(0, store.getCount(4));
+        try {
+            store.setCount(4, 1);
+            fail("A full store accepted a new id");
+        } catch (IllegalStateException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void publishClearsDirtyCounts() {
+        BadgeCountStore store = new BadgeCountStore(16);
+        BadgeDrawable first = BadgeDrawable.create(mContext);
+        BadgeDrawable second = BadgeDrawable.create(mContext);
+        store.bind(1, first);
+        store.bind(2, second);
+        store.setCount(1, 5);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(5, first.getNumber());
+
+        // A count published before must not be published again by a later frame.
+        first.setNumber(9);
+        store.setCount(2, 7);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(9, first.getNumber());
+        assertEquals(7, second.getNumber());
+    }
+
+    @Test
+    public void unboundCountsAreKept() {
+        BadgeCountStore store = new BadgeCountStore(16);
+        store.setCount(1, 3);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        BadgeDrawable badge = BadgeDrawable.create(mContext);
+        store.bind(1, badge);
+
+        assertEquals(3, badge.getNumber());
+        assertEquals(0, store.getCount(2));
+    }
+
+    /**
+     * @return smallest id above {@code id} hashed to the same slot
+     */
+    private static int findCollidingId(int id, int mask) {
+        int slot = BadgeCountStore.hash(id) & mask;
+        for (int candidate = id + 1; ; candidate++) {
+            if ((BadgeCountStore.hash(candidate) & mask) == slot) {
+                return candidate;
+            }
+        }
+    }
+
+    private static class CountingCallback implements Drawable.Callback {
+        int mInvalidateCount;
+
+        @Override
+        public void invalidateDrawable(@NonNull Drawable who) {
+            mInvalidateCount++;
+        }
+
+        @Override
+        public void scheduleDrawable(@NonNull Drawable who, @NonNull Runnable what, long when) {
+        }
+
+        @Override
+        public void unscheduleDrawable(@NonNull Drawable who, @NonNull Runnable what) {
+        }
+    }
+}
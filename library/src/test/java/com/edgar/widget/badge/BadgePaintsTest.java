@@ -0,0 +1,45 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Typeface;
+import android.text.TextPaint;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Shared text paints are opaque and shared by badges that only differ in alpha.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BadgePaintsTest {
+
+    @After
+    public void tearDown() {
+        BadgePaints.clear();
+    }
+
+    @Test
+    public void alphaDoesNotCreatePaints() {
+        TextPaint opaque = BadgePaints.obtainTextPaint(Typeface.DEFAULT, 30f, 0xFFFFFFFF, /* colorFilter= */ null);
+        for (int alpha = 0; alpha < 255; alpha += 5) {
+            int color = (alpha << 24) | 0x00FFFFFF;
+            assertSame(opaque, BadgePaints.obtainTextPaint(Typeface.DEFAULT, 30f, color, /* colorFilter= */ null));
+        }
+        assertEquals(255, opaque.getAlpha());
+    }
+
+    @Test
+    public void otherColorGetsOtherPaint() {
+        TextPaint white = BadgePaints.obtainTextPaint(Typeface.DEFAULT, 30f, 0xFFFFFFFF, /* colorFilter= */ null);
+        TextPaint black = BadgePaints.obtainTextPaint(Typeface.DEFAULT, 30f, 0xFF000000, /* colorFilter= */ null);
+
+        assertNotSame(white, black);
+    }
+}
@@ -0,0 +1,102 @@
+package com.edgar.widget.badge;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Hits, misses and collisions of the shared label width cache.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class BadgeTextWidthCacheTest {
+
+    private static final char[] LABEL_12 = {'1', '2'};
+    private static final char[] LABEL_99_PLUS = {'9', '9', '+'};
+
+    private Paint mPaint;
+
+    @Before
+    public void setUp() {
+        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPaint.setTextSize(30f);
+    }
+
+    @Test
+    public void repeatedLabelIsMeasuredOnce() {
+        BadgeTextWidthCache cache = new BadgeTextWidthCache(16);
+
+        float width = cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+        assertEquals(mPaint.measureText(LABEL_12, 0, LABEL_12.length), width, 0f);
+        assertEquals(width, cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length), 0f);
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void textSizeAndTypefaceArePartOfTheKey() {
+        BadgeTextWidthCache cache = new BadgeTextWidthCache(16);
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+
+        mPaint.setTextSize(60f);
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+        mPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+
+        assertEquals(3, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void labelRangeIsPartOfTheKey() {
+        BadgeTextWidthCache cache = new BadgeTextWidthCache(16);
+        cache.measureText(mPaint, LABEL_99_PLUS, 0, 2);
+        cache.measureText(mPaint, LABEL_99_PLUS, 0, 3);
+        cache.measureText(mPaint, LABEL_99_PLUS, 0, 2);
+
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0f, cache.measureText(mPaint, LABEL_99_PLUS, 0, 0), 0f);
+    }
+
+    @Test
+    public void collidingLabelReplacesEntry() {
+        // A single slot, every label collides with the one before it.
+        BadgeTextWidthCache cache = new BadgeTextWidthCache(1);
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+        cache.measureText(mPaint, LABEL_99_PLUS, 0, LABEL_99_PLUS.length);
+        assertEquals(1, cache.getEvictionCount());
+
+        float width = cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+
+        assertEquals(mPaint.measureText(LABEL_12, 0, LABEL_12.length), width, 0f);
+        assertEquals(3, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    @Test
+    public void clearAndResetStatistics() {
+        BadgeTextWidthCache cache = new BadgeTextWidthCache(16);
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+        cache.resetStatistics();
+        assertEquals(0, cache.getMissCount());
+
+        cache.clear();
+        cache.measureText(mPaint, LABEL_12, 0, LABEL_12.length);
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+        // Cleared entries are not counted as evictions.
+        assertEquals(0, cache.getEvictionCount());
+    }
+}